@@ -0,0 +1,68 @@
+package hotelBackend.Security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-request token handling in JwtAuthenticationFilter: cached lookups vs. a full signature check
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider provider;
+    private JwtParser uncachedParser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", "benchmark-secret-benchmark-secret-benchmark");
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000);
+        ReflectionTestUtils.setField(provider, "verifiedTokenCacheSize", 10_000L);
+        provider.init();
+
+        User admin = new User("admin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        token = provider.generateToken(new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+
+        Key key = (Key) ReflectionTestUtils.getField(provider, "signingKey");
+        uncachedParser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromJWT() {
+        return provider.getUsernameFromJWT(token);
+    }
+
+    // What every request paid before verified tokens were cached
+    @Benchmark
+    public Claims verifySignature() {
+        return uncachedParser.parseClaimsJws(token).getBody();
+    }
+}
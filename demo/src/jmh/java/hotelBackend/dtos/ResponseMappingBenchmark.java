@@ -0,0 +1,97 @@
+package hotelBackend.dtos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.ClientEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.entities.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping and JSON serialization of the room and booking listings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "200"})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private List<RoomEntity> rooms;
+    private List<RoomDTO> roomDtos;
+    private List<BookingEntity> bookings;
+
+    @Setup
+    public void setUp() {
+        RoomType[] types = RoomType.values();
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 12, 0);
+        ClientEntity client = new ClientEntity();
+        client.setId(1L);
+        client.setName("Ada Obi");
+
+        rooms = new ArrayList<>(size);
+        bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            RoomEntity room = new RoomEntity();
+            room.setId((long) i);
+            room.setRoomType(types[i % types.length]);
+            room.setRoomNumber("R" + (100 + i));
+            room.setDescription("Room with a queen bed, work desk and a view of the garden");
+            room.setImageUrl("https://cdn.example.com/rooms/" + i + ".jpg");
+            room.setPricePerNight(new BigDecimal("45000.00"));
+            rooms.add(room);
+
+            BookingEntity booking = new BookingEntity();
+            booking.setId((long) i);
+            booking.setRoom(room);
+            booking.setClient(client);
+            booking.setBookingStartDate(LocalDate.of(2030, 2, 1).plusDays(i));
+            booking.setBookingEndDate(LocalDate.of(2030, 2, 4).plusDays(i));
+            booking.setAmountPaid(new BigDecimal("135000.00"));
+            booking.setCreatedAt(now);
+            bookings.add(booking);
+        }
+        roomDtos = rooms.stream().map(RoomDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<RoomDTO> roomFromEntity() {
+        return rooms.stream().map(RoomDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public List<BookingResponse> bookingFromEntity() {
+        return bookings.stream().map(BookingResponse::fromEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeRoomList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(roomDtos);
+    }
+}
@@ -0,0 +1,108 @@
+package hotelBackend.services;
+
+import hotelBackend.repositories.BookedStay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Date-overlap evaluation for one room: the index's sorted-array search vs. a scan over every booking
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupancyConflictBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10", "100", "1000"})
+    private int bookings;
+
+    private RoomOccupancyIndex.RoomOccupancy occupancy;
+    private List<Stay> stays;
+    private long[] queryStarts;
+    private long[] queryEnds;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        stays = new ArrayList<>(bookings);
+        for (long id = 1; id <= bookings; id++) {
+            day = day.plusDays(random.nextInt(0, 3));
+            LocalDate end = day.plusDays(random.nextInt(1, 8));
+            stays.add(new Stay(id, 1L, day, end));
+            day = end;
+        }
+        occupancy = RoomOccupancyIndex.RoomOccupancy.empty(false).withStays(new ArrayList<>(stays));
+
+        long first = LocalDate.of(2030, 1, 1).toEpochDay();
+        long last = day.toEpochDay();
+        queryStarts = new long[QUERIES];
+        queryEnds = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryStarts[i] = random.nextLong(first, last + 1);
+            queryEnds[i] = queryStarts[i] + random.nextInt(1, 8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void sortedIndex(Blackhole blackhole) {
+        for (int i = 0; i < QUERIES; i++) {
+            blackhole.consume(occupancy.firstConflict(queryStarts[i], queryEnds[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void linearScan(Blackhole blackhole) {
+        for (int i = 0; i < QUERIES; i++) {
+            LocalDate start = LocalDate.ofEpochDay(queryStarts[i]);
+            LocalDate end = LocalDate.ofEpochDay(queryEnds[i]);
+            Stay conflict = null;
+            for (Stay stay : stays) {
+                if (stay.getStartDate().isBefore(end) && stay.getEndDate().isAfter(start)) {
+                    conflict = stay;
+                    break;
+                }
+            }
+            blackhole.consume(conflict);
+        }
+    }
+
+    record Stay(Long id, Long roomId, LocalDate startDate, LocalDate endDate) implements BookedStay {
+        public Long getId() {
+            return id;
+        }
+
+        public Long getRoomId() {
+            return roomId;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public LocalDate getEndDate() {
+            return endDate;
+        }
+    }
+}
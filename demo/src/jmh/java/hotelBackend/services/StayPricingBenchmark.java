@@ -0,0 +1,40 @@
+package hotelBackend.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// BigDecimal pricing done for every booking and payment initiation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StayPricingBenchmark {
+
+    private final BigDecimal pricePerNight = new BigDecimal("45000.00");
+    private final LocalDate startDate = LocalDate.of(2030, 3, 1);
+    private final LocalDate endDate = LocalDate.of(2030, 3, 8);
+
+    @Benchmark
+    public BigDecimal total() {
+        return StayPricing.total(pricePerNight, startDate, endDate);
+    }
+
+    // Amount in kobo as sent to Paystack
+    @Benchmark
+    public int totalInMinorUnits() {
+        return StayPricing.total(pricePerNight, startDate, endDate).multiply(new BigDecimal("100")).intValue();
+    }
+}
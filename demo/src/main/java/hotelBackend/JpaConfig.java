@@ -0,0 +1,31 @@
+package hotelBackend;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching for Hibernate writes. Entity ids come from sequences with an allocation size of 50,
+ * so Hibernate knows an id without inserting the row and can group inserts into batches of
+ * {@code app.jpa.batch-size}. Inserts and updates are ordered by entity type so a flush that
+ * touches several tables still forms full batches.
+ *
+ * <p>The pooled-lo optimizer reads a sequence value as the lowest id of its block, which is how
+ * the V5 migration positions the sequences. Add {@code reWriteBatchedInserts=true} to the
+ * PostgreSQL JDBC URL to have each batch sent as a multi-row insert.</p>
+ */
+@Configuration
+public class JpaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatching(@Value("${app.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.put(AvailableSettings.ORDER_INSERTS, true);
+            properties.put(AvailableSettings.ORDER_UPDATES, true);
+            properties.put(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+        };
+    }
+}
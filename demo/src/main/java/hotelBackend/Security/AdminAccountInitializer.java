@@ -0,0 +1,55 @@
+package hotelBackend.Security;
+
+import hotelBackend.entities.OperatorEntity;
+import hotelBackend.entities.Role;
+import hotelBackend.repositories.OperatorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Makes sure the configured admin exists in the users table, hashing its password once at startup
+@Slf4j
+@Component
+public class AdminAccountInitializer {
+
+    @Value("${admin.username}")
+    private String adminUsername;
+
+    @Value("${admin.password}")
+    private String adminPassword;
+
+    private final OperatorRepository operatorRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final OperatorUserDetailsService userDetailsService;
+
+    public AdminAccountInitializer(OperatorRepository operatorRepository,
+                                   PasswordEncoder passwordEncoder,
+                                   OperatorUserDetailsService userDetailsService) {
+        this.operatorRepository = operatorRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void ensureAdminAccount() {
+        OperatorEntity admin = operatorRepository.findByUsername(adminUsername).orElse(null);
+        if (admin == null) {
+            admin = new OperatorEntity();
+            admin.setUsername(adminUsername);
+            log.info("Creating admin account: {}", adminUsername);
+        } else if (passwordEncoder.matches(adminPassword, admin.getPassword()) && admin.getRole() == Role.ROLE_ADMIN) {
+            return;
+        } else {
+            log.info("Updating admin account: {}", adminUsername);
+        }
+        admin.setPassword(passwordEncoder.encode(adminPassword));
+        admin.setRole(Role.ROLE_ADMIN);
+        operatorRepository.save(admin);
+        userDetailsService.evict(adminUsername);
+    }
+}
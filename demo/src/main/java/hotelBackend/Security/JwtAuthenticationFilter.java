@@ -1,5 +1,6 @@
 package hotelBackend.Security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +8,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +18,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -41,17 +46,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
-            log.info("Processing request to: {}", request.getRequestURI());
-            log.info("JWT present: {}", jwt != null);
+            log.debug("Processing request to: {}", request.getRequestURI());
+            log.debug("JWT present: {}", jwt != null);
 
 
-            //if this token is valid and been given out before then extract the username
-            //from the jwt, assign it to userDetails, load it to authentication context
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
-                log.info("Username from token: {}", username);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                log.info("User authorities: {}", userDetails.getAuthorities());
+            //if this token is valid, build the authentication straight from its claims
+            //(subject + roles); older tokens without roles fall back to the user store
+            Optional<Claims> claims = StringUtils.hasText(jwt)
+                    ? tokenProvider.parseVerifiedClaims(jwt)
+                    : Optional.empty();
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
+                log.debug("Username from token: {}", username);
+                List<GrantedAuthority> authorities = tokenProvider.getAuthorities(claims.get());
+                UserDetails userDetails = authorities != null
+                        ? new User(username, "", authorities)
+                        : userDetailsService.loadUserByUsername(username);
+                log.debug("User authorities: {}", userDetails.getAuthorities());
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -64,7 +75,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         .buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.info("Authentication set in SecurityContext");
+                log.debug("Authentication set in SecurityContext");
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -0,0 +1,61 @@
+package hotelBackend.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hotelBackend.entities.OperatorEntity;
+import hotelBackend.repositories.OperatorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Loads operators from the users table. Passwords there are already BCrypt hashes,
+// so nothing gets hashed here; principals are cached for a short while.
+@Slf4j
+@Service
+public class OperatorUserDetailsService implements UserDetailsService {
+
+    private final OperatorRepository operatorRepository;
+    private final Cache<String, UserDetails> principals;
+
+    public OperatorUserDetailsService(OperatorRepository operatorRepository,
+                                      @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds,
+                                      @Value("${security.user-cache.max-size:1000}") long maxSize) {
+        this.operatorRepository = operatorRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Not principals.get(username, loader): that runs the query inside the map's bin lock,
+        // which pins the carrier thread for the whole DB round trip under virtual threads.
+        UserDetails cached = principals.getIfPresent(username);
+        if (cached == null) {
+            cached = loadOperator(username);
+            principals.put(username, cached);
+        }
+        // hand out a copy: authentication erases credentials on the instance it's given
+        return User.withUserDetails(cached).build();
+    }
+
+    public void evict(String username) {
+        principals.invalidate(username);
+    }
+
+    private UserDetails loadOperator(String username) {
+        OperatorEntity operator = operatorRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        return User.withUsername(operator.getUsername())
+                .password(operator.getPassword())
+                .authorities(operator.getRole().name())
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package hotelBackend.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control for the public endpoints, applied before any controller or database work.
+ *
+ * <p>Each configured route (a path pattern, optionally restricted to some HTTP methods) has an
+ * optional per-client token bucket and an optional cap on requests in flight across all clients.
+ * Clients are identified by a known API key when one is sent, otherwise by remote address
+ * (behind a proxy, set {@code server.forward-headers-strategy} so that is the real client).
+ * Buckets live in a bounded Caffeine map, whose hash table is already striped, and are updated
+ * with a single CAS, so the hot path takes no lock. The concurrency cap should sit below the
+ * connection pool size for routes that hit the database; excess requests get 429 with
+ * {@code Retry-After} instead of queueing for a connection.</p>
+ *
+ * <p>Rejections are counted in {@code ratelimit.rejected{route, reason=rate|concurrency}}.</p>
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<RouteLimiter> routes = new ArrayList<>();
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.apiKeyHeader = properties.getApiKeyHeader();
+        this.apiKeys = Set.copyOf(properties.getApiKeys());
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new RouteLimiter(route, properties, meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights carry no work and must not use up the client's allowance
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getServletPath());
+        RouteLimiter route = null;
+        for (RouteLimiter candidate : routes) {
+            if (candidate.matches(path, request.getMethod())) {
+                route = candidate;
+                break;
+            }
+        }
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (route.buckets != null) {
+            long waitNanos = route.tryAcquire(clientKey(request));
+            if (waitNanos > 0) {
+                route.rateLimited.increment();
+                reject(response, waitNanos, "Too many requests, slow down");
+                return;
+            }
+        }
+
+        if (route.concurrency == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean permitted;
+        try {
+            permitted = route.concurrency.tryAcquire(route.maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permitted = false;
+        }
+        if (!permitted) {
+            route.concurrencyLimited.increment();
+            reject(response, TimeUnit.SECONDS.toNanos(1), "Server is busy, try again shortly");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            route.concurrency.release();
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static final class RouteLimiter {
+        private final PathPattern pattern;
+        // upper case; empty means every method
+        private final Set<String> methods;
+        private final Cache<String, TokenBucket> buckets;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Semaphore concurrency;
+        private final long maxWaitMillis;
+        private final Counter rateLimited;
+        private final Counter concurrencyLimited;
+
+        RouteLimiter(RateLimitProperties.Route route, RateLimitProperties properties, MeterRegistry meterRegistry) {
+            if (route.getPattern() == null || route.getPattern().isBlank()) {
+                throw new IllegalArgumentException("app.rate-limit.routes[].pattern is required");
+            }
+            this.pattern = PathPatternParser.defaultInstance.parse(route.getPattern());
+            this.methods = route.getMethods().stream()
+                    .map(method -> method.trim().toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+
+            if (route.getRequestsPerSecond() > 0) {
+                this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / route.getRequestsPerSecond()));
+                this.toleranceNanos = intervalNanos * (Math.max(1, route.getBurst()) - 1);
+                this.buckets = Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxClients())
+                        .expireAfterAccess(properties.getClientIdle())
+                        .build();
+                Gauge.builder("ratelimit.clients", buckets, Cache::estimatedSize)
+                        .tag("route", route.getPattern())
+                        .register(meterRegistry);
+            } else {
+                this.intervalNanos = 0;
+                this.toleranceNanos = 0;
+                this.buckets = null;
+            }
+
+            if (route.getMaxConcurrent() > 0) {
+                this.concurrency = new Semaphore(route.getMaxConcurrent());
+                Gauge.builder("ratelimit.concurrency.available", concurrency, Semaphore::availablePermits)
+                        .tag("route", route.getPattern())
+                        .register(meterRegistry);
+            } else {
+                this.concurrency = null;
+            }
+            this.maxWaitMillis = route.getMaxWait().toMillis();
+
+            this.rateLimited = Counter.builder("ratelimit.rejected")
+                    .tag("route", route.getPattern())
+                    .tag("reason", "rate")
+                    .register(meterRegistry);
+            this.concurrencyLimited = Counter.builder("ratelimit.rejected")
+                    .tag("route", route.getPattern())
+                    .tag("reason", "concurrency")
+                    .register(meterRegistry);
+            log.info("Rate limit on {} {}: {} req/s per client (burst {}), {} concurrent",
+                    methods.isEmpty() ? "*" : methods, route.getPattern(),
+                    route.getRequestsPerSecond(), route.getBurst(), route.getMaxConcurrent());
+        }
+
+        boolean matches(PathContainer path, String method) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+
+        long tryAcquire(String client) {
+            long now = System.nanoTime();
+            return buckets.get(client, key -> new TokenBucket(now)).tryAcquire(now, intervalNanos, toleranceNanos);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package hotelBackend.Security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code app.rate-limit.*}: admission control for the public endpoints. Routes are matched in
+ * order against the request path and the first match applies; a route with neither limit set
+ * passes requests through untouched.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Requests carrying one of these keys are limited per key instead of per IP
+    private String apiKeyHeader = "X-API-Key";
+    private List<String> apiKeys = new ArrayList<>();
+
+    // Per-route client buckets kept in memory; idle ones are dropped
+    private long maxClients = 100_000;
+    private Duration clientIdle = Duration.ofMinutes(10);
+
+    // Defaults when app.rate-limit.routes isn't set. The webhook only records the payment, and
+    // Paystack retries anything we refuse, so it isn't limited. Initiating a payment inserts a hold
+    // that the bookings_no_overlap constraint checks, and calls Paystack, so it is the tightest.
+    // Only room reads are limited; admin writes on /api/rooms/** are authenticated and rare.
+    private List<Route> routes = new ArrayList<>(List.of(
+            Route.of("/api/payments/webhook", 0, 1, 0, Duration.ZERO),
+            Route.of("/api/payments/initiate", 0.2, 5, 8, Duration.ofMillis(100)),
+            Route.of("/api/payments/**", 2, 10, 0, Duration.ZERO),
+            Route.of("/api/rooms/**", 10, 30, 20, Duration.ofMillis(50), "GET")));
+
+    @Data
+    public static class Route {
+        private String pattern;
+        // Sustained rate and burst per client; 0 turns the per-client limit off
+        private double requestsPerSecond;
+        private int burst = 1;
+        // Requests on this route in flight at once across all clients; 0 turns it off
+        private int maxConcurrent;
+        private Duration maxWait = Duration.ZERO;
+        // HTTP methods the route applies to; empty means all. Other methods fall through to later routes.
+        private List<String> methods = new ArrayList<>();
+
+        static Route of(String pattern, double requestsPerSecond, int burst, int maxConcurrent, Duration maxWait,
+                        String... methods) {
+            Route route = new Route();
+            route.setPattern(pattern);
+            route.setRequestsPerSecond(requestsPerSecond);
+            route.setBurst(burst);
+            route.setMaxConcurrent(maxConcurrent);
+            route.setMaxWait(maxWait);
+            route.setMethods(new ArrayList<>(List.of(methods)));
+            return route;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package hotelBackend.Security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (the generic cell rate algorithm): the time at which
+ * the bucket will be full again. A request is admitted if that time is no more than the burst
+ * allowance ahead of now, and pushes it forward by one emission interval. One CAS per request,
+ * no lock, and nothing to refill in the background.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0 if admitted, otherwise nanoseconds until the next request would be
+    long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+        for (;;) {
+            long current = fullAt.get();
+            long ahead = current - now;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            long next = Math.max(current, now) + intervalNanos;
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
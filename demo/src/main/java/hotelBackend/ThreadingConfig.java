@@ -0,0 +1,63 @@
+package hotelBackend;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics for comparing the two request threading modes. With {@code spring.threads.virtual.enabled=true}
+ * Boot runs Tomcat requests, the task executor and {@code @Scheduled} jobs on virtual threads;
+ * otherwise Tomcat keeps its platform-thread pool.
+ *
+ * <p>Every meter is tagged {@code thread.mode=virtual|platform} so runs of the same load test in
+ * both modes line up in {@code http.server.requests} (throughput and latency) and
+ * {@code jvm.threads.live} (platform threads only). {@code app.threads.carriers} counts the
+ * carrier threads running virtual threads, and in virtual mode {@code jvm.threads.virtual.pinned}
+ * records, via JFR, each time a virtual thread blocked while pinned to its carrier.</p>
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> threadModeTag(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return registry -> registry.config().commonTags("thread.mode", virtualThreads ? "virtual" : "platform");
+    }
+
+    @Bean
+    public MeterBinder carrierThreadMetrics() {
+        return registry -> Gauge.builder("app.threads.carriers", ThreadingConfig::countCarrierThreads)
+                .description("Platform threads currently serving as virtual-thread carriers")
+                .register(registry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics();
+    }
+
+    private static int countCarrierThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() * 2 + 16];
+        int count = root.enumerate(threads, true);
+        int carriers = 0;
+        for (int i = 0; i < count; i++) {
+            if (CARRIER_THREAD_CLASS.equals(threads[i].getClass().getName())) {
+                carriers++;
+            }
+        }
+        return carriers;
+    }
+}
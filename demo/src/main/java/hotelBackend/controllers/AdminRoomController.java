@@ -0,0 +1,43 @@
+package hotelBackend.controllers;
+
+import hotelBackend.dtos.BulkRoomResult;
+import hotelBackend.services.RoomBulkService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Bulk room maintenance. Bodies are a JSON array or CSV with a header line, read as a stream.
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/rooms")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminRoomController {
+
+    private final RoomBulkService roomBulkService;
+
+    public AdminRoomController(RoomBulkService roomBulkService) {
+        this.roomBulkService = roomBulkService;
+    }
+
+    // columns: roomNumber, roomType, description, imageUrl, pricePerNight, underMaintenance
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkRoomResult> importRooms(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(roomBulkService.importRooms(body, contentType));
+    }
+
+    // columns: roomNumber, pricePerNight
+    @PostMapping(value = "/prices", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkRoomResult> updatePrices(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(roomBulkService.updatePrices(body, contentType));
+    }
+}
@@ -1,20 +1,29 @@
 package hotelBackend.controllers;
 
 import hotelBackend.dtos.BookingDTO;
+import hotelBackend.dtos.BookingPage;
 import hotelBackend.dtos.BookingResponse;
+import hotelBackend.dtos.GroupBookingRequest;
+import hotelBackend.dtos.GroupBookingResponse;
 import hotelBackend.dtos.PaymentResponse;
+import hotelBackend.services.BookingExportService;
 import hotelBackend.services.BookingService;
+import hotelBackend.services.GroupBookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -23,13 +32,40 @@ import java.util.List;
 public class BookingController {
     //dependency
     private final BookingService bookingService;
+    private final GroupBookingService groupBookingService;
+    private final BookingExportService bookingExportService;
 
 
-    //get all bookings(paginated)
+    //get all bookings, newest first (keyset paginated: pass X-Next-Cursor back as ?cursor=)
     @GetMapping
-    public ResponseEntity<Page<BookingResponse>> getAllBookings(Pageable pageable) {
-        log.info("Fetching all bookings with pagination");
-        return ResponseEntity.ok(bookingService.getAllBookings(pageable));
+    public ResponseEntity<List<BookingResponse>> getAllBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Fetching bookings page");
+        BookingPage page = bookingService.getAllBookings(cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(RoomController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
+
+
+    //stream every booking as CSV (default) or NDJSON, admins only
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(name = "format", defaultValue = "csv") String formatName) {
+        BookingExportService.Format format = BookingExportService.Format.valueOf(formatName.toUpperCase(Locale.ROOT));
+        log.info("Exporting bookings as {}", format);
+        MediaType contentType = format == BookingExportService.Format.NDJSON
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.valueOf("text/csv;charset=UTF-8");
+        String filename = "bookings-" + LocalDate.now() + (format == BookingExportService.Format.NDJSON ? ".ndjson" : ".csv");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> bookingExportService.export(format, out));
     }
 
 
@@ -41,19 +77,27 @@ public class BookingController {
     }
 
 
-    //get all bookings of a particular client
+    //get a client's bookings overlapping [from, to) (default: the next four weeks)
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<BookingResponse>> getClientBookings(@PathVariable Long clientId) {
-        log.info("Fetching bookings for client: {}", clientId);
-        return ResponseEntity.ok(bookingService.getClientBookings(clientId));
+    public ResponseEntity<List<BookingResponse>> getClientBookings(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Fetching bookings for client: {} from {} to {}", clientId, from, to);
+        return ResponseEntity.ok(bookingService.getClientBookings(clientId, from, to, limit));
     }
 
 
-    //get all bookings for a particular room
+    //get a room's bookings overlapping [from, to) (default: the next four weeks)
     @GetMapping("/room/{roomId}")
-    public ResponseEntity<List<BookingResponse>> getRoomBookings(@PathVariable Long roomId) {
-        log.info("Fetching bookings for room: {}", roomId);
-        return ResponseEntity.ok(bookingService.getRoomBookings(roomId));
+    public ResponseEntity<List<BookingResponse>> getRoomBookings(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Fetching bookings for room: {} from {} to {}", roomId, from, to);
+        return ResponseEntity.ok(bookingService.getRoomBookings(roomId, from, to, limit));
     }
 
 
@@ -66,6 +110,19 @@ public class BookingController {
     }
 
 
+    //book several rooms for one client at once
+    @PostMapping("/group")
+    public ResponseEntity<GroupBookingResponse> createGroupBooking(@Valid @RequestBody GroupBookingRequest request) {
+        log.info("Creating group booking of {} rooms for client: {} ({})",
+                request.getItems().size(), request.getClientId(), request.getMode());
+        GroupBookingResponse response = groupBookingService.createGroupBooking(request);
+        if (request.getMode() == GroupBookingRequest.Mode.ALL_OR_NOTHING && !response.isComplete()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+
     //delete a particular room
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> cancelBooking(@PathVariable Long id) {
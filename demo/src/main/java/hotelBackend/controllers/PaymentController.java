@@ -1,14 +1,20 @@
 package hotelBackend.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import hotelBackend.dtos.PaymentInitiateRequest;
 import hotelBackend.dtos.PaymentResponse;
+import hotelBackend.exceptions.PaymentGatewayUnavailableException;
 import hotelBackend.exceptions.PaymentProcessingException;
 import hotelBackend.response.ErrorResponse;
+import hotelBackend.services.PaymentWebhookQueue;
 import hotelBackend.services.PaystackService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,7 +26,11 @@ import java.util.Map;
 @Slf4j
 @RequiredArgsConstructor
 public class PaymentController {
+    private static final String SIGNATURE_HEADER = "x-paystack-signature";
+
     private final PaystackService paystackService;
+    private final PaymentWebhookQueue webhookQueue;
+    private final ObjectMapper objectMapper;
 
     // Payment initiation endpoint
     @PostMapping("/initiate")
@@ -29,6 +39,12 @@ public class PaymentController {
             log.info("Payment initiation request received: {}", request);
             PaymentResponse response = paystackService.initiatePayment(request);
             return ResponseEntity.ok(response);
+        } catch (PaymentGatewayUnavailableException e) {
+            log.warn("Payment gateway unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorResponse(
+                    "PAYMENT_GATEWAY_UNAVAILABLE",
+                    e.getMessage()
+            ));
         } catch (PaymentProcessingException e) {
             log.warn("Payment processing failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ErrorResponse(
@@ -63,6 +79,12 @@ public class PaymentController {
                         "message", "Payment verification failed"
                 ));
             }
+        } catch (PaymentGatewayUnavailableException e) {
+            log.warn("Payment verification deferred, gateway unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                    "status", false,
+                    "message", e.getMessage()
+            ));
         } catch (Exception e) {
             log.error("Payment verification failed", e);
             return ResponseEntity.badRequest().body(Map.of(
@@ -72,6 +94,41 @@ public class PaymentController {
         }
     }
 
+    // Paystack webhook: check the signature, record the payment and acknowledge; confirmation is batched
+    @PostMapping("/webhook")
+    public ResponseEntity<?> handleWebhook(
+            @RequestHeader(value = SIGNATURE_HEADER, required = false) String signature,
+            @RequestBody String payload) {
+        if (!paystackService.isValidWebhookSignature(payload, signature)) {
+            log.warn("Rejected Paystack webhook with an invalid signature");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String type = event.path("event").asText();
+        JsonNode data = event.get("data");
+        if (!"charge.success".equals(type) || data == null || !"success".equals(data.path("status").asText())) {
+            log.debug("Ignoring Paystack webhook event {}", type);
+            return ResponseEntity.ok().build();
+        }
+
+        try {
+            webhookQueue.accept(data);
+        } catch (Exception e) {
+            // Paystack retries anything that isn't a 200
+            log.error("Could not record payment {} from webhook, asking Paystack to retry",
+                    data.path("reference").asText(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
     // Success redirect endpoint
     @GetMapping("/success")
     public ResponseEntity<?> paymentSuccess(@RequestParam("reference") String reference) {
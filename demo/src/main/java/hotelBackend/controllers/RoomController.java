@@ -1,16 +1,24 @@
 package hotelBackend.controllers;
 
+import hotelBackend.dtos.RoomCalendarResponse;
 import hotelBackend.dtos.RoomDTO;
+import hotelBackend.dtos.RoomPage;
+import hotelBackend.dtos.RoomSummary;
 import hotelBackend.entities.RoomType;
+import hotelBackend.repositories.RoomCatalogVersion;
 import hotelBackend.services.RoomAvailabilityService;
+import hotelBackend.services.RoomCalendarService;
 import jakarta.validation.Valid;
 import hotelBackend.response.ErrorResponse;
 import hotelBackend.response.SuccessResponse;
 import hotelBackend.entities.RoomEntity;
 import hotelBackend.services.RoomService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,39 +26,94 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/rooms")
 @CrossOrigin(origins = "${cors.allowed-origins}") // Use the property
 public class RoomController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final RoomService roomService;
     private final RoomAvailabilityService roomAvailabilityService;
+    private final RoomCalendarService roomCalendarService;
+
+    @Value("${app.rooms.http-cache.catalog-max-age-seconds:30}")
+    private long catalogMaxAgeSeconds;
+
+    @Value("${app.rooms.http-cache.room-max-age-seconds:60}")
+    private long roomMaxAgeSeconds;
 
     @Autowired
-    public RoomController(RoomService roomService, RoomAvailabilityService roomAvailabilityService) {
+    public RoomController(RoomService roomService, RoomAvailabilityService roomAvailabilityService,
+                          RoomCalendarService roomCalendarService) {
         this.roomService = roomService;
         this.roomAvailabilityService = roomAvailabilityService;
+        this.roomCalendarService = roomCalendarService;
     }
 
     @GetMapping
-    public ResponseEntity<List<RoomDTO>> getAllRooms() {
-        List<RoomDTO> rooms = roomService.getAllRooms().stream()
-                .map(RoomDTO::fromEntity)
+    public ResponseEntity<List<RoomDTO>> getAllRooms(ServletWebRequest request) {
+        // Answer polls from the catalog version alone; the rooms are only read when it has moved
+        RoomCatalogVersion version = roomService.getCatalogVersion();
+        String etag = "\"rooms-" + version.getRoomCount() + "-" + epochMicros(version.getLastUpdated()) + "\"";
+        if (notModified(request, catalogCacheControl(), etag, version.getLastUpdated())) {
+            return null;
+        }
+
+        List<RoomSummary> catalog = roomService.getAllRooms(version);
+        // Describe the body actually sent, which only differs from the version above if a room
+        // changed in between
+        LocalDateTime servedUpdated = RoomService.lastUpdated(catalog);
+        validators(request, "\"rooms-" + catalog.size() + "-" + epochMicros(servedUpdated) + "\"", servedUpdated);
+
+        List<RoomDTO> rooms = catalog.stream()
+                .map(RoomDTO::fromSummary)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(rooms);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<RoomDTO> getRoom(@PathVariable Long id) {
-        RoomEntity room = roomService.getRoomByid(id);
-        return ResponseEntity.ok(RoomDTO.fromEntity(room));
+    public ResponseEntity<?> getRoom(@PathVariable Long id, ServletWebRequest request) {
+        Optional<LocalDateTime> lastModified = roomService.getRoomLastModified(id);
+        if (lastModified.isPresent()) {
+            String etag = "\"room-" + id + "-" + epochMicros(lastModified.get()) + "\"";
+            if (notModified(request, roomCacheControl(), etag, lastModified.get())) {
+                return null;
+            }
+        }
+        try {
+            RoomSummary room = roomService.getRoomByid(id, lastModified.orElse(null));
+            validators(request, "\"room-" + id + "-" + epochMicros(room.updatedAt()) + "\"", room.updatedAt());
+            return ResponseEntity.ok(RoomDTO.fromSummary(room));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("Room not found", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/calendar")
+    public ResponseEntity<?> getRoomCalendar(
+            @PathVariable Long id,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) Integer days) {
+        try {
+            RoomCalendarResponse calendar = roomCalendarService.getCalendar(id, from, days);
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(calendar);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse("Calendar unavailable", e.getMessage()));
+        }
     }
 
     @GetMapping("/filter")
@@ -60,9 +123,15 @@ public class RoomController {
             @RequestParam(required = false) RoomType roomType,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false, defaultValue = "PRICE_ASC") String sortBy) {
-        List<RoomDTO> filteredRooms = roomService.filterRooms(startDate, endDate, roomType, minPrice, maxPrice, sortBy);
-        return ResponseEntity.ok(filteredRooms);
+            @RequestParam(required = false, defaultValue = "PRICE_ASC") String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        RoomPage page = roomService.filterRooms(startDate, endDate, roomType, minPrice, maxPrice, sortBy, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noStore());
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRooms());
     }
 
     @GetMapping("/available")
@@ -70,7 +139,7 @@ public class RoomController {
             @RequestParam LocalDate startDate,
             @RequestParam LocalDate endDate) {
         List<RoomDTO> availableRooms = roomService.getAvailableRooms(startDate, endDate);
-        return ResponseEntity.ok(availableRooms);
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(availableRooms);
     }
 
     @PostMapping
@@ -106,6 +175,43 @@ public class RoomController {
         }
     }
 
+    // Sets the endpoint's Cache-Control and, if the client's copy is still current, answers 304
+    // (with ETag and Last-Modified) so the caller can return without building a body
+    private boolean notModified(ServletWebRequest request, CacheControl cacheControl, String etag,
+                                LocalDateTime lastModified) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        long lastModifiedMillis = lastModified != null
+                ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        return request.checkNotModified(etag, lastModifiedMillis);
+    }
+
+    // Replaces the validators checkNotModified wrote with ones computed from the body being sent
+    private void validators(ServletWebRequest request, String etag, LocalDateTime lastModified) {
+        HttpServletResponse response = request.getResponse();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (lastModified != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED,
+                    lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(catalogMaxAgeSeconds)).cachePublic();
+    }
+
+    private CacheControl roomCacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(roomMaxAgeSeconds)).cachePublic();
+    }
+
+    private static long epochMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        Instant instant = timestamp.atZone(ZoneId.systemDefault()).toInstant();
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
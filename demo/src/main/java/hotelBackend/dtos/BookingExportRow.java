@@ -0,0 +1,24 @@
+package hotelBackend.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One line of the bookings export, selected with its room and client in a single join (no entities)
+public record BookingExportRow(
+        Long id,
+        Long roomId,
+        String roomNumber,
+        Long clientId,
+        String clientName,
+        String clientEmail,
+        String clientPhoneNumber,
+        LocalDate startDate,
+        LocalDate endDate,
+        BigDecimal amountPaid,
+        String paymentReference,
+        String paymentStatus,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
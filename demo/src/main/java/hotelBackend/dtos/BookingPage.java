@@ -0,0 +1,14 @@
+package hotelBackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingPage {
+    private List<BookingResponse> bookings;
+    // opaque keyset cursor for the next page, null on the last page
+    private String nextCursor;
+}
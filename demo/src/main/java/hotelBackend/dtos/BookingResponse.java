@@ -1,5 +1,7 @@
 package hotelBackend.dtos;
 
+import hotelBackend.entities.BookingEntity;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
@@ -11,6 +13,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 @Getter
 @Setter
 public class BookingResponse {
@@ -21,4 +24,21 @@ public class BookingResponse {
     private LocalDate endDate;
     private BigDecimal amountPaid;
     private LocalDateTime createdAt;
+
+    public static BookingResponse fromEntity(BookingEntity booking) {
+        return fromEntity(booking, booking.getRoom().getRoomNumber());
+    }
+
+    // For when the room number is already known (e.g. from the room cache) and the room is only a reference
+    public static BookingResponse fromEntity(BookingEntity booking, String roomNumber) {
+        return BookingResponse.builder()
+                .id(booking.getId())
+                .roomNumber(roomNumber)
+                .clientName(booking.getClient().getName())
+                .startDate(booking.getBookingStartDate())
+                .endDate(booking.getBookingEndDate())
+                .amountPaid(booking.getAmountPaid())
+                .createdAt(booking.getCreatedAt())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package hotelBackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkRoomResult {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        REJECTED
+    }
+
+    private int succeeded;
+    private int rejected;
+    // one entry per input row, in input order
+    private List<Row> rows = new ArrayList<>();
+
+    public void add(Row row) {
+        rows.add(row);
+        if (row.getStatus() == Status.REJECTED) {
+            rejected++;
+        } else {
+            succeeded++;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        // 1-based position in the input, not counting a CSV header
+        private int row;
+        private String roomNumber;
+        private Status status;
+        private Long roomId;
+        // why the row was rejected, null otherwise
+        private String error;
+    }
+}
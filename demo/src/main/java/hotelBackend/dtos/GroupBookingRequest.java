@@ -0,0 +1,48 @@
+package hotelBackend.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Getter
+@Setter
+public class GroupBookingRequest {
+    @NotNull(message = "Client ID is required")
+    private Long clientId;
+
+    // ALL_OR_NOTHING unless stated otherwise
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    @NotEmpty(message = "At least one room is required")
+    @Valid
+    private List<Item> items;
+
+    public enum Mode {
+        // book every item or none of them
+        ALL_OR_NOTHING,
+        // book whatever is free, report the rest
+        BEST_EFFORT
+    }
+
+    @Data
+    public static class Item {
+        @NotNull(message = "Room ID is required")
+        private Long roomId;
+
+        @NotNull(message = "Start date is required")
+        @Future(message = "Start date must be in the future")
+        private LocalDate startDate;
+
+        @NotNull(message = "End date is required")
+        @Future(message = "End date must be in the future")
+        private LocalDate endDate;
+    }
+}
@@ -0,0 +1,40 @@
+package hotelBackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Getter
+@Setter
+@Builder
+public class GroupBookingResponse {
+    private GroupBookingRequest.Mode mode;
+    private int bookedCount;
+    private int rejectedCount;
+    // one entry per requested item, in request order
+    private List<ItemResult> items;
+
+    public boolean isComplete() {
+        return rejectedCount == 0;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long roomId;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private boolean booked;
+        // why the item could not be booked, null when booked
+        private String reason;
+        private BookingResponse booking;
+    }
+}
@@ -0,0 +1,33 @@
+package hotelBackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Getter
+@Setter
+@Builder
+public class RoomCalendarResponse {
+    private Long roomId;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean underMaintenance;
+    // free stretches, endDate is the checkout day (exclusive)
+    private List<DateRange> freeRanges;
+    private List<LocalDate> availableDates;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DateRange {
+        private LocalDate startDate;
+        private LocalDate endDate;
+    }
+}
@@ -38,4 +38,18 @@ public class RoomDTO {
         dto.setNextAvailableDates(new ArrayList<>());
         return dto;
     }
+
+    public static RoomDTO fromSummary(RoomSummary room) {
+        RoomDTO dto = new RoomDTO();
+        dto.setId(room.id());
+        dto.setRoomType(room.roomType());
+        dto.setRoomNumber(room.roomNumber());
+        dto.setDescription(room.description());
+        dto.setImageUrl(room.imageUrl());
+        dto.setUnderMaintenance(room.underMaintenance());
+        dto.setPricePerNight(room.pricePerNight());
+        dto.setAvailable(true);
+        dto.setNextAvailableDates(new ArrayList<>());
+        return dto;
+    }
 }
\ No newline at end of file
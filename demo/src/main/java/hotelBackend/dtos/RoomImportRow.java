@@ -0,0 +1,38 @@
+package hotelBackend.dtos;
+
+import hotelBackend.entities.RoomType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One room in a bulk import, from a CSV line or a JSON array element
+@Data
+@NoArgsConstructor
+public class RoomImportRow {
+    @NotBlank(message = "Room number is required")
+    @Size(max = 255)
+    private String roomNumber;
+
+    @NotNull(message = "Room type is required")
+    private RoomType roomType;
+
+    @Size(max = 1000)
+    private String description;
+
+    @NotBlank(message = "Image URL is required")
+    @Size(max = 255)
+    private String imageUrl;
+
+    @NotNull(message = "Price per night is required")
+    @DecimalMin(value = "0.01", message = "Price per night must be positive")
+    @Digits(integer = 8, fraction = 2)
+    private BigDecimal pricePerNight;
+
+    private boolean underMaintenance;
+}
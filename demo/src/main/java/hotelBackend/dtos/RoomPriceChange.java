@@ -0,0 +1,23 @@
+package hotelBackend.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// New nightly price for one room in a bulk price update
+@Data
+@NoArgsConstructor
+public class RoomPriceChange {
+    @NotBlank(message = "Room number is required")
+    private String roomNumber;
+
+    @NotNull(message = "Price per night is required")
+    @DecimalMin(value = "0.01", message = "Price per night must be positive")
+    @Digits(integer = 8, fraction = 2)
+    private BigDecimal pricePerNight;
+}
@@ -0,0 +1,19 @@
+package hotelBackend.dtos;
+
+import hotelBackend.entities.RoomType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read model for room listings, selected straight from the rooms table (no entity, no bookings)
+public record RoomSummary(
+        Long id,
+        RoomType roomType,
+        String roomNumber,
+        String description,
+        String imageUrl,
+        boolean underMaintenance,
+        BigDecimal pricePerNight,
+        LocalDateTime updatedAt
+) {
+}
@@ -20,7 +20,8 @@ import java.util.List;
 public class ClientEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_id_seq")
+    @SequenceGenerator(name = "clients_id_seq", sequenceName = "clients_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,7 +33,7 @@ public class ClientEntity {
     @JsonBackReference("booking-client")
     @JsonIgnoreProperties("client")
     @OneToMany(mappedBy = "client", cascade = CascadeType.ALL,
-                orphanRemoval = true, fetch = FetchType.EAGER)
+                orphanRemoval = true, fetch = FetchType.LAZY)
     private List<BookingEntity> bookings = new ArrayList<>();
 
     @Column(nullable = false)
@@ -20,7 +20,8 @@ import java.util.List;
 public class RoomEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_id_seq")
+    @SequenceGenerator(name = "rooms_id_seq", sequenceName = "rooms_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -40,7 +41,7 @@ public class RoomEntity {
 
     @JsonIgnoreProperties("room") // This should ignore the room field in BookingEntity
     @JsonManagedReference("room-bookings") // This should match the reference in BookingEntity
-    @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<BookingEntity> bookings;
 
     @Column(nullable = false, precision = 10, scale = 2)
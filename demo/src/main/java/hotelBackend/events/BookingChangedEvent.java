@@ -0,0 +1,50 @@
+package hotelBackend.events;
+
+import hotelBackend.entities.BookingEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// Published whenever a booking row is inserted or removed, so in-memory views of
+// room occupancy can follow along once the transaction commits. Changes made on other app
+// nodes are relayed by RoomCatalogInvalidator and republished here with remote set.
+@Getter
+@AllArgsConstructor
+public class BookingChangedEvent {
+
+    public enum Type {
+        CREATED,
+        CANCELLED
+    }
+
+    private final Type type;
+    private final Long bookingId;
+    private final Long roomId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final boolean remote;
+
+    public static BookingChangedEvent created(BookingEntity booking) {
+        return of(Type.CREATED, booking);
+    }
+
+    public static BookingChangedEvent cancelled(BookingEntity booking) {
+        return of(Type.CANCELLED, booking);
+    }
+
+    private static BookingChangedEvent of(Type type, BookingEntity booking) {
+        return new BookingChangedEvent(
+                type,
+                booking.getId(),
+                booking.getRoom().getId(),
+                booking.getBookingStartDate(),
+                booking.getBookingEndDate(),
+                false);
+    }
+
+    public static BookingChangedEvent fromOtherNode(Type type, Long bookingId, Long roomId,
+                                                    LocalDate startDate, LocalDate endDate) {
+        return new BookingChangedEvent(type, bookingId, roomId, startDate, endDate, true);
+    }
+}
@@ -0,0 +1,48 @@
+package hotelBackend.events;
+
+import hotelBackend.entities.RoomEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when a room is created, updated or removed.
+@Getter
+@AllArgsConstructor
+public class RoomChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long roomId;
+    private final boolean underMaintenance;
+    // True when the change was made on another node and relayed by RoomCatalogInvalidator
+    private final boolean remote;
+
+    public static RoomChangedEvent created(RoomEntity room) {
+        return new RoomChangedEvent(Type.CREATED, room.getId(), room.isUnderMaintenance(), false);
+    }
+
+    public static RoomChangedEvent updated(RoomEntity room) {
+        return new RoomChangedEvent(Type.UPDATED, room.getId(), room.isUnderMaintenance(), false);
+    }
+
+    // For rooms written with plain JDBC, where there is no entity to hand over
+    public static RoomChangedEvent created(Long roomId, boolean underMaintenance) {
+        return new RoomChangedEvent(Type.CREATED, roomId, underMaintenance, false);
+    }
+
+    public static RoomChangedEvent updated(Long roomId, boolean underMaintenance) {
+        return new RoomChangedEvent(Type.UPDATED, roomId, underMaintenance, false);
+    }
+
+    public static RoomChangedEvent deleted(Long roomId) {
+        return new RoomChangedEvent(Type.DELETED, roomId, false, false);
+    }
+
+    public static RoomChangedEvent fromOtherNode(Type type, Long roomId, boolean underMaintenance) {
+        return new RoomChangedEvent(type, roomId, underMaintenance, true);
+    }
+}
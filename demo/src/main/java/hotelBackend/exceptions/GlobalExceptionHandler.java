@@ -26,6 +26,16 @@ public class GlobalExceptionHandler {
         );
         return ResponseEntity.badRequest().body(error);
     }
+    @ExceptionHandler(RoomNotAvailableException.class)
+    public ResponseEntity<hotelBackend.response.ErrorResponse> handleRoomNotAvailable(RoomNotAvailableException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new hotelBackend.response.ErrorResponse(
+                e.getReason(),
+                e.getMessage(),
+                e.getConflictStartDate(),
+                e.getConflictEndDate()
+        ));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
         Map<String, String> response = new HashMap<>();
@@ -40,6 +50,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(PaymentGatewayUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handlePaymentGatewayUnavailable(PaymentGatewayUnavailableException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     @Data
     @AllArgsConstructor
     static class ErrorResponse {
@@ -0,0 +1,12 @@
+package hotelBackend.exceptions;
+
+// Paystack couldn't be reached in time, or we've stopped trying for a while
+public class PaymentGatewayUnavailableException extends RuntimeException {
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
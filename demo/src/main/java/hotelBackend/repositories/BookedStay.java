@@ -0,0 +1,15 @@
+package hotelBackend.repositories;
+
+import java.time.LocalDate;
+
+// Lightweight projection of a booking's room and nights, used to build availability views
+// without hydrating BookingEntity (and its room/client associations).
+public interface BookedStay {
+    Long getId();
+
+    Long getRoomId();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+}
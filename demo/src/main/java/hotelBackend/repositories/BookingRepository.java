@@ -1,28 +1,63 @@
 package hotelBackend.repositories;
 
+import hotelBackend.dtos.BookingExportRow;
+import hotelBackend.dtos.BookingResponse;
 import hotelBackend.entities.BookingEntity;
 import hotelBackend.entities.RoomEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<BookingEntity, Long> {
 
-    List<BookingEntity> findByClientId(Long clientId);
+    // A client's or room's stays overlapping [from, to), with room number and client name joined in.
+    // The end-date range on ix_bookings_client_stay / ix_bookings_room_stay skips older history.
+    @Query("SELECT new hotelBackend.dtos.BookingResponse(b.id, r.roomNumber, c.name, " +
+            "b.bookingStartDate, b.bookingEndDate, b.amountPaid, b.createdAt) " +
+            "FROM BookingEntity b JOIN b.room r JOIN b.client c " +
+            "WHERE b.client.id = :clientId " +
+            "AND b.bookingEndDate > :from " +
+            "AND b.bookingStartDate < :to " +
+            "ORDER BY b.bookingStartDate, b.id")
+    List<BookingResponse> findClientTimeline(
+            @Param("clientId") Long clientId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Limit limit);
 
-    List<BookingEntity> findByRoomId(Long roomId);
+    @Query("SELECT new hotelBackend.dtos.BookingResponse(b.id, r.roomNumber, c.name, " +
+            "b.bookingStartDate, b.bookingEndDate, b.amountPaid, b.createdAt) " +
+            "FROM BookingEntity b JOIN b.room r JOIN b.client c " +
+            "WHERE b.room.id = :roomId " +
+            "AND b.bookingEndDate > :from " +
+            "AND b.bookingStartDate < :to " +
+            "ORDER BY b.bookingStartDate, b.id")
+    List<BookingResponse> findRoomTimeline(
+            @Param("roomId") Long roomId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Limit limit);
 
+    // Half-open overlap with [startDate, endDate), served by ix_bookings_room_stay
     @Query("SELECT b FROM BookingEntity b " +
             "WHERE b.room.id = :roomId " +
-            "AND ((:startDate BETWEEN b.bookingStartDate AND b.bookingEndDate) " +
-            "OR (:endDate BETWEEN b.bookingStartDate AND b.bookingEndDate) " +
-            "OR (b.bookingStartDate BETWEEN :startDate AND :endDate))")
+            "AND b.bookingStartDate < :endDate " +
+            "AND b.bookingEndDate > :startDate " +
+            "ORDER BY b.bookingStartDate")
     List<BookingEntity> findConflictingBookings(
             @Param("roomId") Long roomId,
             @Param("startDate") LocalDate startDate,
@@ -30,9 +65,81 @@ public interface BookingRepository extends JpaRepository<BookingEntity, Long> {
 
 
     Optional<BookingEntity> findByPaymentReference(String paymentReference);
-    }
 
+    List<BookingEntity> findByPaymentReferenceIn(Collection<String> paymentReferences);
+
+    @Query("SELECT COUNT(b) > 0 FROM BookingEntity b " +
+            "WHERE b.room.id = :roomId " +
+            "AND b.bookingStartDate < :endDate " +
+            "AND b.bookingEndDate > :startDate")
+    boolean existsOverlapping(
+            @Param("roomId") Long roomId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    List<BookingEntity> findByPaymentStatusInAndCreatedAtBefore(Collection<String> paymentStatuses,
+                                                                LocalDateTime createdBefore);
+
+    // One statement against the payment_reference index; 0 when the reference has no open hold
+    @Modifying
+    @Query("UPDATE BookingEntity b SET b.paymentStatus = :status, b.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE b.paymentReference = :reference AND b.paymentStatus IN :fromStatuses")
+    int updatePaymentStatus(@Param("reference") String reference,
+                            @Param("fromStatuses") Collection<String> fromStatuses,
+                            @Param("status") String status);
+
+    // Deletes the booking only while it still has one of these statuses, so a hold that was paid
+    // after it was read is left alone; 1 if it was deleted
+    @Modifying
+    @Query("DELETE FROM BookingEntity b WHERE b.id = :id AND b.paymentStatus IN :statuses")
+    int deleteByIdAndPaymentStatusIn(@Param("id") Long id, @Param("statuses") Collection<String> statuses);
+
+    @Query("SELECT b.id AS id, b.room.id AS roomId, " +
+            "b.bookingStartDate AS startDate, b.bookingEndDate AS endDate " +
+            "FROM BookingEntity b " +
+            "WHERE b.bookingEndDate > :from")
+    List<BookedStay> findStaysEndingAfter(@Param("from") LocalDate from);
+
+    @Query("SELECT b.id AS id, b.room.id AS roomId, " +
+            "b.bookingStartDate AS startDate, b.bookingEndDate AS endDate " +
+            "FROM BookingEntity b " +
+            "WHERE b.room.id IN :roomIds " +
+            "AND b.bookingStartDate < :to " +
+            "AND b.bookingEndDate > :from " +
+            "ORDER BY b.room.id, b.bookingStartDate")
+    List<BookedStay> findStaysForRooms(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
 
+    // Keyset pages of GET /api/bookings, newest first, with room number and client name joined in.
+    // The row-value comparison lets ix_bookings_created seek straight to the page.
+    @Query("SELECT new hotelBackend.dtos.BookingResponse(b.id, r.roomNumber, c.name, " +
+            "b.bookingStartDate, b.bookingEndDate, b.amountPaid, b.createdAt) " +
+            "FROM BookingEntity b JOIN b.room r JOIN b.client c " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponse> findNewest(Limit limit);
 
+    @Query("SELECT new hotelBackend.dtos.BookingResponse(b.id, r.roomNumber, c.name, " +
+            "b.bookingStartDate, b.bookingEndDate, b.amountPaid, b.createdAt) " +
+            "FROM BookingEntity b JOIN b.room r JOIN b.client c " +
+            "WHERE (b.createdAt, b.id) < (:createdAt, :id) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponse> findNewestBefore(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit);
 
+    // Every booking in id order for the export. Rows come from a server-side cursor, EXPORT_FETCH_SIZE
+    // at a time, and are plain records, so nothing accumulates in the persistence context.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT new hotelBackend.dtos.BookingExportRow(b.id, r.id, r.roomNumber, c.id, c.name, c.email, " +
+            "c.phoneNumber, b.bookingStartDate, b.bookingEndDate, b.amountPaid, b.paymentReference, " +
+            "b.paymentStatus, b.createdAt, b.updatedAt) " +
+            "FROM BookingEntity b JOIN b.room r JOIN b.client c " +
+            "ORDER BY b.id")
+    Stream<BookingExportRow> streamForExport();
 
+    String EXPORT_FETCH_SIZE = "1000";
+}
@@ -0,0 +1,12 @@
+package hotelBackend.repositories;
+
+import hotelBackend.entities.OperatorEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OperatorRepository extends JpaRepository<OperatorEntity, Long> {
+    Optional<OperatorEntity> findByUsername(String username);
+}
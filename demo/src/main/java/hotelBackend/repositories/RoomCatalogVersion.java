@@ -0,0 +1,10 @@
+package hotelBackend.repositories;
+
+import java.time.LocalDateTime;
+
+// Changes whenever a room is created, updated or deleted; cheap enough to read on every poll
+public interface RoomCatalogVersion {
+    long getRoomCount();
+
+    LocalDateTime getLastUpdated();
+}
@@ -1,33 +1,70 @@
 package hotelBackend.repositories;
 
+import hotelBackend.dtos.RoomSummary;
 import hotelBackend.entities.RoomEntity;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoomRepository extends JpaRepository<RoomEntity, Long> {
+public interface RoomRepository extends JpaRepository<RoomEntity, Long>, JpaSpecificationExecutor<RoomEntity>,
+        RoomRepositoryCustom {
     RoomEntity findByRoomNumber(String roomNumber);
 
     boolean existsByRoomNumber(String roomNumber);
 
-    RoomEntity getRoomByid(Long id);
+    String ROOM_SUMMARY = "SELECT new hotelBackend.dtos.RoomSummary(" +
+            "r.id, r.roomType, r.roomNumber, r.description, r.imageUrl, " +
+            "r.underMaintenance, r.pricePerNight, r.updatedAt) FROM RoomEntity r ";
+
+    @Query(ROOM_SUMMARY + "ORDER BY r.id")
+    List<RoomSummary> findAllSummaries();
+
+    @Query(ROOM_SUMMARY + "WHERE r.id = :roomId")
+    Optional<RoomSummary> findSummaryById(@Param("roomId") Long roomId);
+
+    @Query(ROOM_SUMMARY + "WHERE r.id IN :roomIds ORDER BY r.id")
+    List<RoomSummary> findSummariesByIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    @Query("SELECT count(r) AS roomCount, max(r.updatedAt) AS lastUpdated FROM RoomEntity r")
+    RoomCatalogVersion findCatalogVersion();
+
+    @Query("SELECT r.updatedAt FROM RoomEntity r WHERE r.id = :roomId")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("roomId") Long roomId);
+
+    // Only for paths that really need the booking collection (e.g. cascading a delete)
+    @EntityGraph(attributePaths = "bookings")
+    Optional<RoomEntity> findWithBookingsById(Long id);
+
+    // Row locks taken in ascending id order, so callers locking overlapping sets can't deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RoomEntity r WHERE r.id IN :roomIds ORDER BY r.id")
+    List<RoomEntity> lockAllByIdInOrder(@Param("roomIds") Collection<Long> roomIds);
+
+    @Query("SELECT r.id AS id, r.underMaintenance AS underMaintenance FROM RoomEntity r")
+    List<RoomState> findAllRoomStates();
+
+    @Query("SELECT r.id AS id, r.underMaintenance AS underMaintenance FROM RoomEntity r WHERE r.id = :roomId")
+    Optional<RoomState> findRoomStateById(@Param("roomId") Long roomId);
 
     @Query("SELECT r FROM RoomEntity r " +
             "WHERE r.id = :roomId " +
             "AND NOT r.underMaintenance " +
             "AND NOT EXISTS (" +
-            "    SELECT b FROM BookingEntity b " +
+            "    SELECT 1 FROM BookingEntity b " +
             "    WHERE b.room.id = r.id " +
-            "    AND ((:startDate BETWEEN b.bookingStartDate AND b.bookingEndDate) " +
-            "         OR (:endDate BETWEEN b.bookingStartDate AND b.bookingEndDate) " +
-            "         OR (b.bookingStartDate BETWEEN :startDate AND :endDate)))")
+            "    AND b.bookingStartDate < :endDate " +
+            "    AND b.bookingEndDate > :startDate)")
     Optional<RoomEntity> findAvailableRoom(
             @Param("roomId") Long roomId,
             @Param("startDate") LocalDate startDate,
@@ -35,34 +72,14 @@ public interface RoomRepository extends JpaRepository<RoomEntity, Long> {
     );
 
 
-    @Query("""
-    SELECT r FROM RoomEntity r 
-    WHERE r.id = :roomId
-    AND r.underMaintenance = false
-    AND NOT EXISTS (
-        SELECT b FROM BookingEntity b
-        WHERE b.room.id = r.id
-        AND (
-            (:startDate < b.bookingEndDate)
-            AND (:endDate > b.bookingStartDate)
-        )
-    )
-    """)
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    Optional<RoomEntity> findAvailableRoomWithLock(
-            @Param("roomId") Long roomId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate
-    );
-
-
-    @Query("SELECT r FROM RoomEntity r " +
+    @Query(ROOM_SUMMARY +
             "WHERE NOT r.underMaintenance " +
-            "AND r.id NOT IN (" +
-            "    SELECT b.room.id FROM BookingEntity b " +
-            "    WHERE b.bookingStartDate <= :endDate " +
-            "    AND b.bookingEndDate >= :startDate)")
-    List<RoomEntity> findAllAvailableRooms(
+            "AND NOT EXISTS (" +
+            "    SELECT 1 FROM BookingEntity b " +
+            "    WHERE b.room.id = r.id " +
+            "    AND b.bookingStartDate < :endDate " +
+            "    AND b.bookingEndDate > :startDate)")
+    List<RoomSummary> findAllAvailableRooms(
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
@@ -0,0 +1,19 @@
+package hotelBackend.repositories;
+
+import hotelBackend.dtos.RoomSummary;
+import hotelBackend.entities.RoomEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface RoomRepositoryCustom {
+
+    // Rooms matching the filter ordered by (pricePerNight, id), starting after the given keyset position
+    List<RoomSummary> searchSummaries(Specification<RoomEntity> filter,
+                                      Sort.Direction direction,
+                                      BigDecimal afterPrice,
+                                      Long afterId,
+                                      int limit);
+}
@@ -0,0 +1,71 @@
+package hotelBackend.repositories;
+
+import hotelBackend.dtos.RoomSummary;
+import hotelBackend.entities.RoomEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RoomRepositoryCustomImpl implements RoomRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RoomSummary> searchSummaries(Specification<RoomEntity> filter,
+                                             Sort.Direction direction,
+                                             BigDecimal afterPrice,
+                                             Long afterId,
+                                             int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RoomSummary> query = cb.createQuery(RoomSummary.class);
+        Root<RoomEntity> room = query.from(RoomEntity.class);
+        Path<BigDecimal> price = room.get("pricePerNight");
+        Path<Long> id = room.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate filterPredicate = filter.toPredicate(room, query, cb);
+        if (filterPredicate != null) {
+            where.add(filterPredicate);
+        }
+        if (afterPrice != null && afterId != null) {
+            // The plain bound is implied by the OR below; it's there so ix_rooms_price_id can seek to the cursor
+            where.add(direction == Sort.Direction.DESC
+                    ? cb.lessThanOrEqualTo(price, afterPrice)
+                    : cb.greaterThanOrEqualTo(price, afterPrice));
+            where.add(direction == Sort.Direction.DESC
+                    ? cb.or(cb.lessThan(price, afterPrice),
+                            cb.and(cb.equal(price, afterPrice), cb.lessThan(id, afterId)))
+                    : cb.or(cb.greaterThan(price, afterPrice),
+                            cb.and(cb.equal(price, afterPrice), cb.greaterThan(id, afterId))));
+        }
+
+        query.select(cb.construct(RoomSummary.class,
+                        id,
+                        room.get("roomType"),
+                        room.get("roomNumber"),
+                        room.get("description"),
+                        room.get("imageUrl"),
+                        room.get("underMaintenance"),
+                        price,
+                        room.get("updatedAt")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(direction == Sort.Direction.DESC
+                        ? List.of(cb.desc(price), cb.desc(id))
+                        : List.of(cb.asc(price), cb.asc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,48 @@
+package hotelBackend.repositories;
+
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.entities.RoomType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Building blocks for the dynamic room search in RoomService.filterRooms
+public final class RoomSpecifications {
+
+    private RoomSpecifications() {
+    }
+
+    public static Specification<RoomEntity> notUnderMaintenance() {
+        return (root, query, cb) -> cb.isFalse(root.get("underMaintenance"));
+    }
+
+    public static Specification<RoomEntity> hasType(RoomType roomType) {
+        return (root, query, cb) -> cb.equal(root.get("roomType"), roomType);
+    }
+
+    public static Specification<RoomEntity> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("pricePerNight"), minPrice);
+    }
+
+    public static Specification<RoomEntity> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("pricePerNight"), maxPrice);
+    }
+
+    // No booking overlapping the nights [startDate, endDate)
+    public static Specification<RoomEntity> availableBetween(LocalDate startDate, LocalDate endDate) {
+        return (root, query, cb) -> {
+            Subquery<Long> booked = query.subquery(Long.class);
+            Root<BookingEntity> booking = booked.from(BookingEntity.class);
+            booked.select(booking.get("id"))
+                    .where(
+                            cb.equal(booking.get("room"), root),
+                            cb.lessThan(booking.get("bookingStartDate"), endDate),
+                            cb.greaterThan(booking.get("bookingEndDate"), startDate));
+            return cb.not(cb.exists(booked));
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package hotelBackend.repositories;
+
+public interface RoomState {
+    Long getId();
+
+    boolean isUnderMaintenance();
+}
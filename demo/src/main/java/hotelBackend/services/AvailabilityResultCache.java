@@ -0,0 +1,168 @@
+package hotelBackend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.events.RoomChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of availability search results, keyed by the stay dates plus a string of
+ * whatever else shaped the result (filters, sort, page). A booking created or cancelled on this
+ * node evicts exactly the entries whose [start, end) overlaps the booking's nights; a room change
+ * (price, maintenance, a new or removed room) can affect any search, so it clears everything.
+ *
+ * <p>Changes made on other nodes arrive as remote events relayed by {@link RoomCatalogInvalidator}
+ * and evict the same way; the TTL only bounds staleness from a notification that was missed. The
+ * booking itself is still checked against the database when it is made.</p>
+ *
+ * <p>As in {@link RoomCatalogCache}, loads run outside the cache. A load is only stored if no
+ * eviction overlapping its dates happened while it ran, which is checked against a short log of
+ * recent evictions rather than a single counter, so a busy booking stream for other dates
+ * doesn't keep every search uncached.</p>
+ */
+@Component
+public class AvailabilityResultCache {
+
+    private static final int EVICTION_LOG_SIZE = 1024;
+
+    record Key(LocalDate startDate, LocalDate endDate, String query) {
+    }
+
+    private record Eviction(long generation, LocalDate from, LocalDate to) {
+    }
+
+    private final Cache<Key, Object> results;
+    private final Counter invalidated;
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private final ArrayDeque<Eviction> evictions = new ArrayDeque<>();
+    private long generation;
+
+    @Value("${app.availability.cache.enabled:true}")
+    private boolean enabled;
+
+    public AvailabilityResultCache(MeterRegistry meterRegistry,
+                                   @Value("${app.availability.cache.max-size:10000}") long maxSize,
+                                   @Value("${app.availability.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "rooms.availability");
+        this.invalidated = Counter.builder("rooms.availability.invalidated")
+                .description("Availability results evicted because a booking or room changed")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(LocalDate startDate, LocalDate endDate, String query, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(startDate, endDate, query);
+        Object cached = results.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long seen = currentGeneration();
+        T loaded = loader.get();
+        lock.lock();
+        try {
+            if (loaded != null && !evictedSince(seen, startDate, endDate)) {
+                results.put(key, loaded);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        evictOverlapping(event.getStartDate(), event.getEndDate());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        evictAll();
+    }
+
+    public void evictAll() {
+        lock.lock();
+        try {
+            logEviction(LocalDate.MIN, LocalDate.MAX);
+            invalidated.increment(results.estimatedSize());
+            results.invalidateAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Searches for [start, end) are affected by a booking of [from, to) only if the two overlap
+    void evictOverlapping(LocalDate from, LocalDate to) {
+        lock.lock();
+        try {
+            logEviction(from, to);
+            results.asMap().keySet().removeIf(key -> {
+                boolean overlaps = key.startDate().isBefore(to) && key.endDate().isAfter(from);
+                if (overlaps) {
+                    invalidated.increment();
+                }
+                return overlaps;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long currentGeneration() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void logEviction(LocalDate from, LocalDate to) {
+        evictions.addLast(new Eviction(++generation, from, to));
+        if (evictions.size() > EVICTION_LOG_SIZE) {
+            evictions.removeFirst();
+        }
+    }
+
+    // Whether anything overlapping [start, end) was evicted after generation `seen`. If the log no
+    // longer reaches back that far, assume it was.
+    private boolean evictedSince(long seen, LocalDate start, LocalDate end) {
+        if (generation == seen) {
+            return false;
+        }
+        if (evictions.isEmpty() || evictions.peekFirst().generation() > seen + 1) {
+            return true;
+        }
+        for (Iterator<Eviction> it = evictions.descendingIterator(); it.hasNext(); ) {
+            Eviction eviction = it.next();
+            if (eviction.generation() <= seen) {
+                break;
+            }
+            if (eviction.from().isBefore(end) && eviction.to().isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,141 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hotelBackend.dtos.BookingExportRow;
+import hotelBackend.repositories.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every booking to an output stream as CSV or NDJSON. Rows are read through a database
+ * cursor and written as they arrive, so memory use doesn't depend on how many bookings exist.
+ */
+@Slf4j
+@Service
+public class BookingExportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String CSV_HEADER = "id,room_id,room_number,client_id,client_name,client_email," +
+            "client_phone_number,start_date,end_date,amount_paid,payment_reference,payment_status,created_at,updated_at";
+
+    private static final String FORMULA_START = "=+-@\t\r";
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public BookingExportService(BookingRepository bookingRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Runs on the response-writing thread; the transaction (and cursor) lives only for the write
+    public void export(Format format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        try {
+            long rows = readOnlyTransaction.execute(status -> {
+                try (Stream<BookingExportRow> bookings = bookingRepository.streamForExport()) {
+                    return format == Format.NDJSON ? writeNdjson(bookings, out) : writeCsv(bookings, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} bookings as {} in {} ms", rows, format, (System.nanoTime() - started) / 1_000_000);
+        } catch (UncheckedIOException e) {
+            // usually the client went away mid-download
+            throw e.getCause();
+        }
+    }
+
+    private long writeCsv(Stream<BookingExportRow> bookings, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = 0;
+        for (Iterator<BookingExportRow> it = bookings.iterator(); it.hasNext(); rows++) {
+            BookingExportRow row = it.next();
+            writer.write(String.valueOf(row.id()));
+            writeCsvField(writer, row.roomId());
+            writeCsvField(writer, row.roomNumber());
+            writeCsvField(writer, row.clientId());
+            writeCsvField(writer, row.clientName());
+            writeCsvField(writer, row.clientEmail());
+            writeCsvField(writer, row.clientPhoneNumber());
+            writeCsvField(writer, row.startDate());
+            writeCsvField(writer, row.endDate());
+            writeCsvField(writer, row.amountPaid());
+            writeCsvField(writer, row.paymentReference());
+            writeCsvField(writer, row.paymentStatus());
+            writeCsvField(writer, row.createdAt());
+            writeCsvField(writer, row.updatedAt());
+            writer.write('\n');
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private long writeNdjson(Stream<BookingExportRow> bookings, OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        long rows = 0;
+        // The container owns the response stream, and flushing it per row would send a chunk per row
+        try (SequenceWriter writer = objectMapper.writerFor(BookingExportRow.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(buffered)) {
+            for (Iterator<BookingExportRow> it = bookings.iterator(); it.hasNext(); rows++) {
+                writer.write(it.next());
+            }
+        }
+        if (rows > 0) {
+            buffered.write('\n');
+        }
+        buffered.flush();
+        return rows;
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        // Names, emails and phone numbers come from clients; a spreadsheet would run one starting
+        // with = + - @ (or a tab/CR before one) as a formula, so make it plain text with a quote
+        if (value instanceof String && !text.isEmpty() && FORMULA_START.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,26 @@
+package hotelBackend.services;
+
+import java.sql.SQLException;
+
+// Recognises a rejected insert from the bookings_no_overlap exclusion constraint (V3 migration),
+// which is what actually stops two bookings from sharing a night of the same room.
+final class BookingOverlaps {
+
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private BookingOverlaps() {
+    }
+
+    static boolean isOverlap(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -2,20 +2,24 @@ package hotelBackend.services;
 
 import hotelBackend.dtos.*;
 import hotelBackend.entities.*;
+import hotelBackend.events.BookingChangedEvent;
 import hotelBackend.exceptions.BookingException;
+import hotelBackend.exceptions.RoomNotAvailableException;
 import hotelBackend.repositories.BookingRepository;
 import hotelBackend.repositories.ClientRepository;
 import hotelBackend.repositories.RoomRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @Service
@@ -26,81 +30,166 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final ClientRepository clientRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final StayAvailability stayAvailability;
+    private final RoomCatalogCache roomCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Value("${app.bookings.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.bookings.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.bookings.timeline.default-days:28}")
+    private int timelineDefaultDays;
+
+    @Value("${app.bookings.timeline.max-days:366}")
+    private int timelineMaxDays;
+
+    @Value("${app.bookings.timeline.default-limit:100}")
+    private int timelineDefaultLimit;
+
+    // Newest first, one keyset page at a time
     @Transactional(readOnly = true)
-    public Page<BookingResponse> getAllBookings(Pageable pageable) {
-        return bookingRepository.findAll(pageable)
-                .map(this::convertToResponse);
+    public BookingPage getAllBookings(String cursor, Integer size) {
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxPageSize);
+        }
+
+        // one row more than asked for tells us whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<BookingResponse> bookings;
+        if (cursor != null && !cursor.isBlank()) {
+            CreatedCursor before = CreatedCursor.decode(cursor);
+            bookings = bookingRepository.findNewestBefore(before.createdAt(), before.id(), limit);
+        } else {
+            bookings = bookingRepository.findNewest(limit);
+        }
+
+        String nextCursor = null;
+        if (bookings.size() > pageSize) {
+            bookings = bookings.subList(0, pageSize);
+            BookingResponse last = bookings.get(pageSize - 1);
+            nextCursor = new CreatedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new BookingPage(bookings, nextCursor);
     }
 
+    // Keyset position for the bookings list: (createdAt, id) of the last row returned, base64url-encoded.
+    // The timestamp itself contains colons, so the id is whatever follows the last one.
+    record CreatedCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (createdAt + ":" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CreatedCursor decode(String cursor) {
+            try {
+                String keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = keys.lastIndexOf(':');
+                return new CreatedCursor(LocalDateTime.parse(keys.substring(0, separator)),
+                        Long.valueOf(keys.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    // Stays overlapping [from, to); from defaults to today and to to app.bookings.timeline.default-days later
     @Transactional(readOnly = true)
-    public List<BookingResponse> getClientBookings(Long clientId) {
-        return bookingRepository.findByClientId(clientId).stream()
-                .map(this::convertToResponse)
-                .toList();
+    public List<BookingResponse> getClientBookings(Long clientId, LocalDate from, LocalDate to, Integer limit) {
+        TimelineWindow window = timelineWindow(from, to, limit);
+        return bookingRepository.findClientTimeline(clientId, window.from(), window.to(), window.limit());
     }
 
     @Transactional(readOnly = true)
-    public List<BookingResponse> getRoomBookings(Long roomId) {
-        return bookingRepository.findByRoomId(roomId).stream()
-                .map(this::convertToResponse)
-                .toList();
+    public List<BookingResponse> getRoomBookings(Long roomId, LocalDate from, LocalDate to, Integer limit) {
+        TimelineWindow window = timelineWindow(from, to, limit);
+        return bookingRepository.findRoomTimeline(roomId, window.from(), window.to(), window.limit());
+    }
+
+    private TimelineWindow timelineWindow(LocalDate from, LocalDate to, Integer limit) {
+        LocalDate effectiveFrom = from != null ? from : LocalDate.now();
+        LocalDate effectiveTo = to != null ? to : effectiveFrom.plusDays(timelineDefaultDays);
+        if (!effectiveTo.isAfter(effectiveFrom)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        if (effectiveTo.isAfter(effectiveFrom.plusDays(timelineMaxDays))) {
+            throw new IllegalArgumentException("The window can span at most " + timelineMaxDays + " days");
+        }
+        int rows = limit != null ? limit : timelineDefaultLimit;
+        if (rows <= 0 || rows > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return new TimelineWindow(effectiveFrom, effectiveTo, Limit.of(rows));
+    }
+
+    private record TimelineWindow(LocalDate from, LocalDate to, Limit limit) {
     }
 
     @Transactional(readOnly = true)
     public BookingResponse getBooking(Long bookingId) {
         BookingEntity booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingException("Booking not found"));
-        return convertToResponse(booking);
+        return BookingResponse.fromEntity(booking);
     }
 
-    private BookingException createDetailedAvailabilityError(Long roomId, LocalDate startDate, LocalDate endDate) {
-        RoomEntity room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new BookingException("Room not found"));
-
-        if (room.isUnderMaintenance()) {
-            return new BookingException("Room is under maintenance");
+    // Plain READ COMMITTED insert: the bookings_no_overlap constraint settles concurrent requests for
+    // the same nights, so bookings for different nights of a room no longer wait on each other.
+    @Transactional
+    public BookingResponse createBooking(BookingDTO bookingDTO) {
+        if (!bookingDTO.getEndDate().isAfter(bookingDTO.getStartDate())) {
+            throw new BookingException("End date must be after start date");
         }
 
-        List<BookingEntity> conflicts = bookingRepository.findConflictingBookings(
-                roomId, startDate, endDate);
-
-        if (!conflicts.isEmpty()) {
-            BookingEntity conflict = conflicts.get(0);
-            log.warn("Room {} has conflicting booking: {} to {}",
-                    roomId, conflict.getBookingStartDate(), conflict.getBookingEndDate());
+        // Cached summary for the checks and price; the booking only needs a reference to the row
+        RoomSummary room = roomCatalogCache.get(bookingDTO.getRoomId())
+                .orElseThrow(() -> new BookingException("Room not found"));
 
-            return new BookingException(String.format(
-                    "Room is already booked from %s to %s",
-                    conflict.getBookingStartDate(),
-                    conflict.getBookingEndDate()));
+        // Cheap early answer with a useful message for the common case
+        if (room.underMaintenance()
+                || !stayAvailability.isFreeForWrite(room.id(), bookingDTO.getStartDate(), bookingDTO.getEndDate())) {
+            throw stayAvailability.refusal(room.id(), bookingDTO.getStartDate(), bookingDTO.getEndDate(),
+                    BookingException::new);
         }
 
-        return new BookingException("Room is not available for the selected dates");
-    }
-
-
-
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public BookingResponse createBooking(BookingDTO bookingDTO) {
-        // Use the same validation as PaystackService
-        RoomEntity room = roomRepository.findAvailableRoomWithLock(
-                        bookingDTO.getRoomId(),
-                        bookingDTO.getStartDate(),
-                        bookingDTO.getEndDate())
-                .orElseThrow(() -> new BookingException("Client not found"));
-
         ClientEntity client = clientRepository.findById(bookingDTO.getClientId())
                 .orElseThrow(() -> new BookingException("Client not found"));
 
         BookingEntity booking = new BookingEntity();
-        booking.setRoom(room);
+        booking.setRoom(roomRepository.getReferenceById(room.id()));
         booking.setClient(client);
         booking.setBookingStartDate(bookingDTO.getStartDate());
         booking.setBookingEndDate(bookingDTO.getEndDate());
-        booking.setAmountPaid(calculateTotalAmount(room, bookingDTO.getStartDate(), bookingDTO.getEndDate()));
+        booking.setAmountPaid(StayPricing.total(room.pricePerNight(), bookingDTO.getStartDate(), bookingDTO.getEndDate()));
+
+        BookingEntity savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (BookingOverlaps.isOverlap(e)) {
+                throw roomTaken(room.id(), bookingDTO.getStartDate(), bookingDTO.getEndDate());
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(BookingChangedEvent.created(savedBooking));
+        return BookingResponse.fromEntity(savedBooking, room.roomNumber());
+    }
 
-        return convertToResponse(bookingRepository.save(booking));
+    // Lost the race for these nights. The transaction is aborted, so details can only come from the index.
+    private RoomNotAvailableException roomTaken(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomOccupancyIndex.Availability availability = occupancyIndex.check(roomId, startDate, endDate);
+        if (availability != null && availability.getConflict() != null) {
+            RoomOccupancyIndex.OccupiedStay conflict = availability.getConflict();
+            return new RoomNotAvailableException(
+                    String.format("Room is already booked from %s to %s", conflict.getStartDate(), conflict.getEndDate()),
+                    "BOOKING_CONFLICT", conflict.getStartDate(), conflict.getEndDate());
+        }
+        return new RoomNotAvailableException("Room was just booked for the selected dates",
+                "BOOKING_CONFLICT", startDate, endDate);
     }
 
 
@@ -114,10 +203,16 @@ public class BookingService {
         }
 
         bookingRepository.delete(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.cancelled(booking));
     }
 
     @Transactional(readOnly = true)
     public boolean isRoomAvailable(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomOccupancyIndex.Availability availability = occupancyIndex.check(roomId, startDate, endDate);
+        if (availability != null) {
+            return availability.isAvailable();
+        }
+
         RoomEntity room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new BookingException("Room not found"));
         try {
@@ -156,22 +251,6 @@ public class BookingService {
     }
 
 
-    private BigDecimal calculateTotalAmount(RoomEntity room, LocalDate startDate, LocalDate endDate) {
-        long nights = ChronoUnit.DAYS.between(startDate, endDate);
-        return room.getPricePerNight().multiply(BigDecimal.valueOf(nights));
-    }
-
-    private BookingResponse convertToResponse(BookingEntity booking) {
-        return BookingResponse.builder()
-                .id(booking.getId())
-                .roomNumber(booking.getRoom().getRoomNumber())
-                .clientName(booking.getClient().getName())
-                .startDate(booking.getBookingStartDate())
-                .endDate(booking.getBookingEndDate())
-                .amountPaid(booking.getAmountPaid())
-                .createdAt(booking.getCreatedAt())
-                .build();
-    }
 
 
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows out of a request body without reading it into memory: either a JSON array of
+ * objects or CSV with a header line naming the fields. A row that cannot be bound to the target
+ * type is handed on with an error instead of failing the whole upload; a body that is not a JSON
+ * array or has no CSV header is rejected with {@link IllegalArgumentException}.
+ */
+class BulkRowReader<T> {
+
+    static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    record Parsed<T>(int row, T value, String error) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+
+    BulkRowReader(ObjectMapper objectMapper, Class<T> type) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    void read(InputStream body, MediaType contentType, Consumer<Parsed<T>> rows) throws IOException {
+        if (contentType != null && TEXT_CSV.isCompatibleWith(contentType)) {
+            readCsv(body, rows);
+        } else if (contentType == null || MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            readJson(body, rows);
+        } else {
+            throw new IllegalArgumentException("Expected text/csv or application/json, got " + contentType);
+        }
+    }
+
+    private void readJson(InputStream body, Consumer<Parsed<T>> rows) throws IOException {
+        int row = 0;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of rows");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unterminated JSON array after row " + row);
+                }
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                rows.accept(bind(row, node));
+            }
+        } catch (JsonProcessingException e) {
+            // Broken syntax can't be skipped like a bad row; rows before it have been handed on
+            throw new IllegalArgumentException("Malformed JSON at row " + (row + 1) + ": "
+                    + firstLine(e.getOriginalMessage()), e);
+        }
+    }
+
+    private void readCsv(InputStream body, Consumer<Parsed<T>> rows) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new IllegalArgumentException("CSV body must start with a header line");
+        }
+        List<String> header = splitCsvLine(stripBom(headerLine));
+
+        int row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            List<String> fields = splitCsvLine(line);
+            if (fields.size() != header.size()) {
+                rows.accept(new Parsed<>(row, null,
+                        "Expected " + header.size() + " columns but found " + fields.size()));
+                continue;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = fields.get(i).trim();
+                values.put(header.get(i).trim(), value.isEmpty() ? null : value);
+            }
+            rows.accept(bind(row, objectMapper.valueToTree(values)));
+        }
+    }
+
+    private Parsed<T> bind(int row, JsonNode node) {
+        try {
+            return new Parsed<>(row, objectMapper.treeToValue(node, type), null);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Parsed<>(row, null, "Unreadable row: " + firstLine(e.getMessage()));
+        }
+    }
+
+    // RFC 4180 fields on one line: commas inside double quotes, "" for a literal quote
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "invalid value";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
@@ -0,0 +1,233 @@
+package hotelBackend.services;
+
+import hotelBackend.dtos.BookingResponse;
+import hotelBackend.dtos.GroupBookingRequest;
+import hotelBackend.dtos.GroupBookingResponse;
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.ClientEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.exceptions.BookingException;
+import hotelBackend.exceptions.RoomNotAvailableException;
+import hotelBackend.repositories.BookedStay;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.ClientRepository;
+import hotelBackend.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Books many rooms for one client in a single transaction.
+ *
+ * <p>All requested rooms are locked up front in ascending id order, so two group bookings that
+ * share rooms queue behind each other instead of deadlocking. Conflicts for every item are checked
+ * against one query over all the rooms' stays, and the accepted bookings are inserted together,
+ * sorted by (room, start date). Single bookings don't take room locks; if one commits between our
+ * check and our insert, the bookings_no_overlap constraint rejects the insert and the whole
+ * attempt is retried with a fresh check.</p>
+ */
+@Slf4j
+@Service
+public class GroupBookingService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Value("${app.bookings.group.max-items:100}")
+    private int maxItems;
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public GroupBookingService(BookingRepository bookingRepository,
+                               RoomRepository roomRepository,
+                               ClientRepository clientRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        this.clientRepository = clientRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public GroupBookingResponse createGroupBooking(GroupBookingRequest request) {
+        if (request.getItems().size() > maxItems) {
+            throw new BookingException("A group booking can contain at most " + maxItems + " rooms");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> book(request, status));
+            } catch (DataIntegrityViolationException e) {
+                if (!BookingOverlaps.isOverlap(e)) {
+                    throw e;
+                }
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new RoomNotAvailableException("Some of the rooms were just booked, please try again",
+                            "BOOKING_CONFLICT", null, null);
+                }
+                log.info("Group booking for client {} raced a concurrent booking, retrying (attempt {})",
+                        request.getClientId(), attempt + 1);
+            }
+        }
+    }
+
+    private GroupBookingResponse book(GroupBookingRequest request, TransactionStatus status) {
+        ClientEntity client = clientRepository.findById(request.getClientId())
+                .orElseThrow(() -> new BookingException("Client not found"));
+        List<GroupBookingRequest.Item> items = request.getItems();
+
+        TreeSet<Long> roomIds = new TreeSet<>();
+        items.forEach(item -> roomIds.add(item.getRoomId()));
+        Map<Long, RoomEntity> rooms = new HashMap<>();
+        for (RoomEntity room : roomRepository.lockAllByIdInOrder(roomIds)) {
+            rooms.put(room.getId(), room);
+        }
+
+        Map<Long, List<BookedStay>> existing = findExistingStays(roomIds, items);
+
+        String[] rejections = new String[items.size()];
+        Map<Long, List<GroupBookingRequest.Item>> accepted = new HashMap<>();
+        int rejected = 0;
+        for (int i = 0; i < items.size(); i++) {
+            GroupBookingRequest.Item item = items.get(i);
+            rejections[i] = rejectionReason(item, rooms, existing, accepted);
+            if (rejections[i] == null) {
+                accepted.computeIfAbsent(item.getRoomId(), id -> new ArrayList<>()).add(item);
+            } else {
+                rejected++;
+            }
+        }
+
+        if (rejected > 0 && request.getMode() == GroupBookingRequest.Mode.ALL_OR_NOTHING) {
+            status.setRollbackOnly();
+            return buildResponse(request, rejections, new BookingEntity[items.size()]);
+        }
+
+        // Same insert order for every group booking, so they can't wait on each other in a cycle
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (rejections[i] == null) {
+                toInsert.add(i);
+            }
+        }
+        toInsert.sort(Comparator.<Integer, Long>comparing(i -> items.get(i).getRoomId())
+                .thenComparing(i -> items.get(i).getStartDate()));
+
+        List<BookingEntity> bookings = new ArrayList<>(toInsert.size());
+        for (int i : toInsert) {
+            GroupBookingRequest.Item item = items.get(i);
+            RoomEntity room = rooms.get(item.getRoomId());
+            BookingEntity booking = new BookingEntity();
+            booking.setRoom(room);
+            booking.setClient(client);
+            booking.setBookingStartDate(item.getStartDate());
+            booking.setBookingEndDate(item.getEndDate());
+            booking.setAmountPaid(StayPricing.total(room.getPricePerNight(), item.getStartDate(), item.getEndDate()));
+            bookings.add(booking);
+        }
+
+        List<BookingEntity> saved = bookingRepository.saveAllAndFlush(bookings);
+        BookingEntity[] byItem = new BookingEntity[items.size()];
+        for (int n = 0; n < toInsert.size(); n++) {
+            byItem[toInsert.get(n)] = saved.get(n);
+            eventPublisher.publishEvent(BookingChangedEvent.created(saved.get(n)));
+        }
+
+        log.info("Group booking for client {}: {} booked, {} rejected", client.getId(), saved.size(), rejected);
+        return buildResponse(request, rejections, byItem);
+    }
+
+    // Every stay on the requested rooms that overlaps the span of the whole request, in one query
+    private Map<Long, List<BookedStay>> findExistingStays(TreeSet<Long> roomIds, List<GroupBookingRequest.Item> items) {
+        LocalDate from = null;
+        LocalDate to = null;
+        for (GroupBookingRequest.Item item : items) {
+            if (item.getEndDate().isAfter(item.getStartDate())) {
+                from = from == null || item.getStartDate().isBefore(from) ? item.getStartDate() : from;
+                to = to == null || item.getEndDate().isAfter(to) ? item.getEndDate() : to;
+            }
+        }
+        Map<Long, List<BookedStay>> stays = new HashMap<>();
+        if (from == null || roomIds.isEmpty()) {
+            return stays;
+        }
+        for (BookedStay stay : bookingRepository.findStaysForRooms(roomIds, from, to)) {
+            stays.computeIfAbsent(stay.getRoomId(), id -> new ArrayList<>()).add(stay);
+        }
+        return stays;
+    }
+
+    private String rejectionReason(GroupBookingRequest.Item item,
+                                   Map<Long, RoomEntity> rooms,
+                                   Map<Long, List<BookedStay>> existing,
+                                   Map<Long, List<GroupBookingRequest.Item>> accepted) {
+        if (!item.getEndDate().isAfter(item.getStartDate())) {
+            return "End date must be after start date";
+        }
+        RoomEntity room = rooms.get(item.getRoomId());
+        if (room == null) {
+            return "Room not found";
+        }
+        if (room.isUnderMaintenance()) {
+            return "Room is under maintenance";
+        }
+        for (BookedStay stay : existing.getOrDefault(item.getRoomId(), List.of())) {
+            if (stay.getStartDate().isBefore(item.getEndDate()) && stay.getEndDate().isAfter(item.getStartDate())) {
+                return String.format("Room is already booked from %s to %s", stay.getStartDate(), stay.getEndDate());
+            }
+        }
+        for (GroupBookingRequest.Item other : accepted.getOrDefault(item.getRoomId(), List.of())) {
+            if (other.getStartDate().isBefore(item.getEndDate()) && other.getEndDate().isAfter(item.getStartDate())) {
+                return "Overlaps another stay for the same room in this request";
+            }
+        }
+        return null;
+    }
+
+    private GroupBookingResponse buildResponse(GroupBookingRequest request, String[] rejections, BookingEntity[] bookings) {
+        List<GroupBookingResponse.ItemResult> results = new ArrayList<>(rejections.length);
+        int booked = 0;
+        for (int i = 0; i < rejections.length; i++) {
+            GroupBookingRequest.Item item = request.getItems().get(i);
+            BookingEntity booking = bookings[i];
+            String reason = rejections[i];
+            if (booking == null && reason == null) {
+                reason = "Not booked: other rooms in the group are unavailable";
+            }
+            if (booking != null) {
+                booked++;
+            }
+            results.add(new GroupBookingResponse.ItemResult(
+                    item.getRoomId(),
+                    item.getStartDate(),
+                    item.getEndDate(),
+                    booking != null,
+                    reason,
+                    booking != null ? BookingResponse.fromEntity(booking) : null));
+        }
+        return GroupBookingResponse.builder()
+                .mode(request.getMode())
+                .bookedCount(booked)
+                .rejectedCount(rejections.length - booked)
+                .items(results)
+                .build();
+    }
+}
@@ -0,0 +1,337 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import hotelBackend.dtos.PaymentInitiateRequest;
+import hotelBackend.dtos.RoomSummary;
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.ClientEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.exceptions.PaymentProcessingException;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.ClientRepository;
+import hotelBackend.repositories.RoomRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database side of the payment flow, split into short transactions so that no row lock or
+ * pooled connection is held while PaystackService talks to Paystack.
+ *
+ * <p>Initiation records a hold: a booking row with status INITIATING for the requested nights,
+ * checked by the bookings_no_overlap constraint. Since it is a regular booking row, every other
+ * availability check sees it. It becomes PENDING once Paystack has accepted the transaction, PAID as
+ * soon as a signed webhook reports the charge (before the webhook is acknowledged), COMPLETED when
+ * the payment is confirmed, and is removed if initiation fails or the hold expires unpaid. PAID holds
+ * are never expired; the sweeper confirms any whose queued confirmation was lost.</p>
+ */
+@Slf4j
+@Service
+public class PaymentIntentService {
+
+    public static final String STATUS_INITIATING = "INITIATING";
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PAID = "PAID";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    @Value("${app.payment.hold-minutes:30}")
+    private long holdMinutes;
+
+    private final RoomRepository roomRepository;
+    private final ClientRepository clientRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomCatalogCache roomCatalogCache;
+    private final StayAvailability stayAvailability;
+
+    public PaymentIntentService(RoomRepository roomRepository,
+                                ClientRepository clientRepository,
+                                BookingRepository bookingRepository,
+                                RoomOccupancyIndex occupancyIndex,
+                                ApplicationEventPublisher eventPublisher,
+                                RoomCatalogCache roomCatalogCache,
+                                StayAvailability stayAvailability) {
+        this.roomRepository = roomRepository;
+        this.clientRepository = clientRepository;
+        this.bookingRepository = bookingRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.eventPublisher = eventPublisher;
+        this.roomCatalogCache = roomCatalogCache;
+        this.stayAvailability = stayAvailability;
+    }
+
+    // Phase 1: validate and record the hold. No room lock: the bookings_no_overlap constraint
+    // rejects the insert if someone else took any of these nights first.
+    @Transactional
+    public PaymentIntent reserve(PaymentInitiateRequest request) {
+        // Cached summary for the checks and price; the hold only needs a reference to the row
+        RoomSummary room = roomCatalogCache.get(request.getRoomId())
+                .orElseThrow(() -> new PaymentProcessingException("Room not found"));
+
+        if (room.underMaintenance()
+                || !stayAvailability.isFreeForWrite(room.id(), request.getStartDate(), request.getEndDate())) {
+            throw stayAvailability.refusal(room.id(), request.getStartDate(), request.getEndDate(),
+                    PaymentProcessingException::new);
+        }
+
+        BigDecimal totalAmount = calculateTotalAmount(request, room.pricePerNight());
+        ClientEntity client = processClient(request);
+
+        BookingEntity hold = new BookingEntity();
+        hold.setRoom(roomRepository.getReferenceById(room.id()));
+        hold.setClient(client);
+        hold.setBookingStartDate(request.getStartDate());
+        hold.setBookingEndDate(request.getEndDate());
+        hold.setAmountPaid(totalAmount);
+        hold.setPaymentReference(generateReference(room.id(), client.getId()));
+        hold.setPaymentStatus(STATUS_INITIATING);
+
+        BookingEntity savedHold;
+        try {
+            savedHold = bookingRepository.saveAndFlush(hold);
+        } catch (DataIntegrityViolationException e) {
+            if (BookingOverlaps.isOverlap(e)) {
+                // the transaction is aborted, so only the index can say what we collided with
+                RoomOccupancyIndex.Availability availability =
+                        occupancyIndex.check(room.id(), request.getStartDate(), request.getEndDate());
+                if (availability != null && availability.getConflict() != null) {
+                    throw new PaymentProcessingException(String.format(
+                            "Room is already booked from %s to %s",
+                            availability.getConflict().getStartDate(),
+                            availability.getConflict().getEndDate()));
+                }
+                throw new PaymentProcessingException("Room was just booked for the selected dates");
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(BookingChangedEvent.created(savedHold));
+
+        return new PaymentIntent(savedHold.getPaymentReference(), room.id(), client.getId(), totalAmount);
+    }
+
+    // Phase 3: Paystack accepted the transaction
+    @Transactional
+    public void markInitiated(String reference) {
+        // Conditional, so a webhook that already marked the hold PAID isn't overwritten
+        bookingRepository.updatePaymentStatus(reference, List.of(STATUS_INITIATING), STATUS_PENDING);
+    }
+
+    // Phase 3 (failure): give the nights back, unless the guest has paid after all
+    @Transactional
+    public void release(String reference) {
+        bookingRepository.findByPaymentReference(reference).ifPresent(this::deleteUnpaidHold);
+    }
+
+    // Turns a verified Paystack transaction into a confirmed booking
+    @Transactional
+    public void completeBooking(JsonNode data) {
+        String reference = data.get("reference").asText();
+        complete(data, bookingRepository.findByPaymentReference(reference).orElse(null));
+    }
+
+    // Same as completeBooking for a batch of transactions, in one transaction and one lookup
+    @Transactional
+    public void completeBookings(Collection<JsonNode> payments) {
+        List<String> references = payments.stream()
+                .map(data -> data.get("reference").asText())
+                .toList();
+        Map<String, BookingEntity> existing = new HashMap<>();
+        for (BookingEntity booking : bookingRepository.findByPaymentReferenceIn(references)) {
+            existing.put(booking.getPaymentReference(), booking);
+        }
+        for (JsonNode data : payments) {
+            complete(data, existing.get(data.get("reference").asText()));
+        }
+    }
+
+    // A signed webhook has reported the charge: durable before the webhook is acknowledged, and
+    // out of reach of the hold sweeper. False when the reference has no open hold.
+    @Transactional
+    public boolean recordPaid(String reference) {
+        return bookingRepository.updatePaymentStatus(
+                reference, List.of(STATUS_INITIATING, STATUS_PENDING), STATUS_PAID) > 0;
+    }
+
+    // PAID counts: Paystack has already told us, signed, that the charge went through
+    @Transactional(readOnly = true)
+    public boolean isCompleted(String reference) {
+        return bookingRepository.findByPaymentReference(reference)
+                .map(booking -> STATUS_COMPLETED.equals(booking.getPaymentStatus())
+                        || STATUS_PAID.equals(booking.getPaymentStatus()))
+                .orElse(false);
+    }
+
+    private void complete(JsonNode data, BookingEntity existing) {
+        try {
+            String reference = data.get("reference").asText();
+
+            // Normally the hold made at initiation is still there and just gets confirmed
+            if (existing != null) {
+                if (STATUS_COMPLETED.equals(existing.getPaymentStatus())) {
+                    log.info("Booking already exists for payment reference: {}", reference);
+                } else {
+                    existing.setPaymentStatus(STATUS_COMPLETED);
+                    log.info("Confirmed booking {} for payment reference {}", existing.getId(), reference);
+                }
+                return;
+            }
+
+            // The hold expired before the payment came through: book from the metadata
+            JsonNode metadata = data.get("metadata");
+            Long roomId = Long.parseLong(metadata.get("roomId").asText());
+            Long clientId = Long.parseLong(metadata.get("clientId").asText());
+            LocalDate startDate = LocalDate.parse(metadata.get("startDate").asText());
+            LocalDate endDate = LocalDate.parse(metadata.get("endDate").asText());
+
+            RoomEntity room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new PaymentProcessingException("Room not found"));
+
+            ClientEntity client = clientRepository.findById(clientId)
+                    .orElseThrow(() -> new PaymentProcessingException("Client not found"));
+
+            // The nights can't be double-booked any more; the guest needs a refund or another room
+            if (bookingRepository.existsOverlapping(roomId, startDate, endDate)) {
+                logPaidWithoutRoom(reference, roomId, startDate, endDate);
+                return;
+            }
+
+            BookingEntity booking = new BookingEntity();
+            booking.setRoom(room);
+            booking.setClient(client);
+            booking.setBookingStartDate(startDate);
+            booking.setBookingEndDate(endDate);
+            booking.setAmountPaid(new BigDecimal(metadata.get("totalAmount").asText()));
+            booking.setPaymentReference(reference);
+            booking.setPaymentStatus(STATUS_COMPLETED);
+
+            // Flushed here so a booking that took the nights since the check above fails now, not at commit
+            BookingEntity savedBooking;
+            try {
+                savedBooking = bookingRepository.saveAndFlush(booking);
+            } catch (DataIntegrityViolationException e) {
+                if (!BookingOverlaps.isOverlap(e)) {
+                    throw e;
+                }
+                logPaidWithoutRoom(reference, roomId, startDate, endDate);
+                throw new PaymentProcessingException("Room " + roomId + " was booked for " + startDate + " to "
+                        + endDate + " before payment " + reference + " could be applied; refund or rebook manually");
+            }
+            eventPublisher.publishEvent(BookingChangedEvent.created(savedBooking));
+
+            log.info("Successfully created booking {} for room {} and client {}",
+                    savedBooking.getId(), roomId, clientId);
+        } catch (PaymentProcessingException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to create booking from payment", e);
+            throw new PaymentProcessingException("Failed to create booking: " + e.getMessage());
+        }
+    }
+
+    // The guest has paid but the nights are gone; someone has to refund or move them
+    private void logPaidWithoutRoom(String reference, Long roomId, LocalDate startDate, LocalDate endDate) {
+        log.error("Payment {} arrived after its hold expired and room {} has since been booked for {} to {}; "
+                + "no booking created, refund or rebook manually", reference, roomId, startDate, endDate);
+    }
+
+    // Holds whose payment never came through, and paid ones whose queued confirmation was lost
+    @Scheduled(fixedDelayString = "${app.payment.hold-sweep-interval-ms:60000}")
+    @Transactional
+    public void expireStaleHolds() {
+        // The webhook drainer runs every few hundred ms, so a hold still PAID a minute on was dropped
+        LocalDateTime unconfirmedBefore = LocalDateTime.now().minusMinutes(1);
+        List<BookingEntity> paid = bookingRepository.findByPaymentStatusInAndCreatedAtBefore(
+                List.of(STATUS_PAID), unconfirmedBefore);
+        for (BookingEntity hold : paid) {
+            if (hold.getUpdatedAt() == null || hold.getUpdatedAt().isBefore(unconfirmedBefore)) {
+                hold.setPaymentStatus(STATUS_COMPLETED);
+                log.warn("Confirmed paid booking {} ({}) whose webhook confirmation was never processed",
+                        hold.getId(), hold.getPaymentReference());
+            }
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(holdMinutes);
+        List<BookingEntity> stale = bookingRepository.findByPaymentStatusInAndCreatedAtBefore(
+                List.of(STATUS_INITIATING, STATUS_PENDING), cutoff);
+        int released = 0;
+        for (BookingEntity hold : stale) {
+            if (deleteUnpaidHold(hold)) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} unpaid booking holds older than {} minutes", released, holdMinutes);
+        }
+    }
+
+    // The status is re-checked by the delete itself: recordPaid may have committed PAID since the
+    // hold was read, and that row is the only record of the payment until the webhook queue drains
+    private boolean deleteUnpaidHold(BookingEntity hold) {
+        if (bookingRepository.deleteByIdAndPaymentStatusIn(hold.getId(),
+                List.of(STATUS_INITIATING, STATUS_PENDING)) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(BookingChangedEvent.cancelled(hold));
+        return true;
+    }
+
+    private BigDecimal calculateTotalAmount(PaymentInitiateRequest request, BigDecimal pricePerNight) {
+        if (StayPricing.nights(request.getStartDate(), request.getEndDate()) <= 0) {
+            throw new PaymentProcessingException("Invalid booking duration");
+        }
+        return StayPricing.total(pricePerNight, request.getStartDate(), request.getEndDate());
+    }
+
+    private ClientEntity processClient(PaymentInitiateRequest request) {
+        try {
+            Optional<ClientEntity> existingClient = clientRepository.findByPhoneNumber(request.getPhoneNumber());
+
+            if (existingClient.isPresent()) {
+                ClientEntity client = existingClient.get();
+                client.setName(request.getName());
+                client.setEmail(request.getEmail());
+                return clientRepository.save(client);
+            } else {
+                ClientEntity newClient = new ClientEntity();
+                newClient.setPhoneNumber(request.getPhoneNumber());
+                newClient.setName(request.getName());
+                newClient.setEmail(request.getEmail());
+                newClient.setBookings(new ArrayList<>());
+                return clientRepository.save(newClient);
+            }
+        } catch (Exception e) {
+            throw new PaymentProcessingException("Failed to process client information", e);
+        }
+    }
+
+    private String generateReference(Long roomId, Long clientId) {
+        return String.format("HOTEL-%d-%d-%d", roomId, clientId, System.currentTimeMillis());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PaymentIntent {
+        private final String reference;
+        private final Long roomId;
+        private final Long clientId;
+        private final BigDecimal totalAmount;
+    }
+}
@@ -0,0 +1,113 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded buffer between the Paystack webhook endpoint and the database. Before a webhook is
+ * acknowledged its hold is marked PAID with one UPDATE, so the payment survives a crash; the rest of
+ * the confirmation is queued, and a scheduled drainer takes what has accumulated, drops duplicate
+ * references and confirms each batch in a single transaction. A payment with no open hold (already
+ * confirmed, or its hold expired) is rare and is handled before acknowledging instead.
+ *
+ * <p>If a batch fails as a whole (one bad payload rolls it back) it is retried one payment at a
+ * time so a single failure doesn't hold up the rest. Anything left when the application stops is
+ * drained before shutdown. If the process dies before draining, the holds are already PAID and
+ * {@link PaymentIntentService#expireStaleHolds()} confirms them; Paystack only redelivers webhooks
+ * that were never acknowledged.</p>
+ */
+@Slf4j
+@Component
+public class PaymentWebhookQueue {
+
+    private final PaymentIntentService paymentIntentService;
+    private final BlockingQueue<JsonNode> queue;
+
+    @Value("${app.payment.webhook.batch-size:100}")
+    private int batchSize;
+
+    public PaymentWebhookQueue(PaymentIntentService paymentIntentService,
+                               @Value("${app.payment.webhook.queue-capacity:10000}") int capacity) {
+        this.paymentIntentService = paymentIntentService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    // Called before the webhook is acknowledged; throws if the payment couldn't be recorded, so Paystack retries
+    public void accept(JsonNode data) {
+        String reference = data.path("reference").asText();
+        if (reference.isEmpty()) {
+            log.warn("Ignoring payment webhook without a reference");
+            return;
+        }
+        if (!paymentIntentService.recordPaid(reference)) {
+            paymentIntentService.completeBooking(data);
+            return;
+        }
+        if (!queue.offer(data)) {
+            // already durable as PAID; the hold sweeper confirms it
+            log.warn("Payment webhook queue is full, leaving {} for the hold sweeper", reference);
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.drain-interval-ms:500}")
+    public void drain() {
+        List<JsonNode> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!queue.isEmpty()) {
+            log.info("Draining {} queued payment webhooks before shutdown", queue.size());
+            drain();
+        }
+    }
+
+    private void process(List<JsonNode> batch) {
+        // Paystack retries and duplicate deliveries: keep the first event per reference
+        Map<String, JsonNode> byReference = new LinkedHashMap<>();
+        for (JsonNode data : batch) {
+            JsonNode reference = data.get("reference");
+            if (reference == null || reference.asText().isEmpty()) {
+                log.warn("Ignoring payment webhook without a reference");
+                continue;
+            }
+            byReference.putIfAbsent(reference.asText(), data);
+        }
+        if (byReference.isEmpty()) {
+            return;
+        }
+
+        try {
+            paymentIntentService.completeBookings(byReference.values());
+            log.info("Confirmed {} payments from webhooks ({} events received)", byReference.size(), batch.size());
+        } catch (Exception e) {
+            log.warn("Webhook batch of {} payments failed, retrying individually", byReference.size(), e);
+            byReference.forEach((reference, data) -> {
+                try {
+                    paymentIntentService.completeBooking(data);
+                } catch (Exception ex) {
+                    log.error("Failed to confirm payment {} from webhook", reference, ex);
+                }
+            });
+        }
+    }
+}
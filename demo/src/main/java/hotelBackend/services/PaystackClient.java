@@ -0,0 +1,278 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hotelBackend.exceptions.PaymentGatewayUnavailableException;
+import hotelBackend.exceptions.PaymentProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The only way out to the Paystack API. Connections are kept alive in a pool (HTTP/2 when the
+ * server negotiates it), every call is bounded by connect/read/overall timeouts, and at most
+ * {@code maxConcurrentCalls} requests are in flight so a slow gateway can't take every web worker
+ * with it.
+ *
+ * <p>After {@code failureThreshold} consecutive timeouts, I/O errors or 5xx/429 responses the
+ * circuit opens and calls fail immediately with {@link PaymentGatewayUnavailableException}. Once
+ * {@code openDuration} has passed a single trial call is let through; it closes the circuit on
+ * success or re-opens it on failure.</p>
+ *
+ * <p>Latency per operation and outcome, pool size, free bulkhead permits, circuit state and
+ * rejected calls are published under {@code paystack.client.*}.</p>
+ */
+@Slf4j
+public class PaystackClient {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final OkHttpClient httpClient;
+    private final ConnectionPool connectionPool;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    public PaystackClient(Settings settings, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.connectionPool = new ConnectionPool(
+                settings.getMaxIdleConnections(), settings.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        this.httpClient = new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(settings.getConnectTimeout())
+                .readTimeout(settings.getReadTimeout())
+                .writeTimeout(settings.getReadTimeout())
+                .callTimeout(settings.getCallTimeout())
+                .retryOnConnectionFailure(false)
+                .build();
+        this.bulkhead = new Semaphore(settings.getMaxConcurrentCalls());
+        this.circuitBreaker = new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration());
+
+        Gauge.builder("paystack.client.pool.connections", connectionPool, ConnectionPool::connectionCount)
+                .description("Open connections to Paystack")
+                .register(meterRegistry);
+        Gauge.builder("paystack.client.pool.idle", connectionPool, ConnectionPool::idleConnectionCount)
+                .description("Idle keep-alive connections to Paystack")
+                .register(meterRegistry);
+        Gauge.builder("paystack.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Paystack calls that can still start without waiting")
+                .register(meterRegistry);
+        Gauge.builder("paystack.client.circuit.open", circuitBreaker, breaker -> breaker.isOpen() ? 1 : 0)
+                .description("1 while calls to Paystack are failing fast")
+                .register(meterRegistry);
+    }
+
+    public JsonNode initializeTransaction(Map<String, Object> payload) {
+        RequestBody body;
+        try {
+            body = RequestBody.create(objectMapper.writeValueAsBytes(payload), JSON);
+        } catch (JsonProcessingException e) {
+            throw new PaymentProcessingException("Failed to serialize payment request", e);
+        }
+        return execute("initialize", newRequest("/transaction/initialize").post(body).build());
+    }
+
+    public JsonNode verifyTransaction(String reference) {
+        return execute("verify", newRequest("/transaction/verify/" + reference).get().build());
+    }
+
+    @PreDestroy
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        connectionPool.evictAll();
+    }
+
+    private Request.Builder newRequest(String path) {
+        return new Request.Builder()
+                .url(settings.getBaseUrl() + path)
+                .header("Authorization", "Bearer " + settings.getSecretKey());
+    }
+
+    private JsonNode execute(String operation, Request request) {
+        if (!circuitBreaker.tryAcquire()) {
+            reject("circuit_open");
+            throw new PaymentGatewayUnavailableException("Payment provider is unavailable, please try again shortly");
+        }
+
+        boolean permitted;
+        try {
+            permitted = bulkhead.tryAcquire(settings.getBulkheadWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            throw new PaymentGatewayUnavailableException("Interrupted while waiting for the payment provider", e);
+        }
+        if (!permitted) {
+            circuitBreaker.release();
+            reject("bulkhead_full");
+            throw new PaymentGatewayUnavailableException("Payment provider is busy, please try again shortly");
+        }
+
+        long started = System.nanoTime();
+        String outcome = "io_error";
+        int status;
+        String responseBody;
+        try (Response response = httpClient.newCall(request).execute()) {
+            status = response.code();
+            ResponseBody body = response.body();
+            responseBody = body != null ? body.string() : "";
+            outcome = status / 100 + "xx";
+        } catch (IOException e) {
+            if (e instanceof InterruptedIOException) {
+                outcome = "timeout";
+            }
+            circuitBreaker.onFailure();
+            log.warn("Paystack {} call failed: {}", operation, e.toString());
+            throw new PaymentGatewayUnavailableException("Payment provider did not respond", e);
+        } catch (RuntimeException e) {
+            // Must still settle the breaker, or a half-open trial would hold the circuit shut for good
+            outcome = "error";
+            circuitBreaker.onFailure();
+            log.warn("Paystack {} call failed: {}", operation, e.toString());
+            throw new PaymentGatewayUnavailableException("Payment provider call failed", e);
+        } finally {
+            bulkhead.release();
+            Timer.builder("paystack.client.requests")
+                    .description("Paystack API calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        if (status >= 500 || status == 429) {
+            circuitBreaker.onFailure();
+            log.warn("Paystack {} call returned HTTP {}", operation, status);
+            throw new PaymentGatewayUnavailableException("Payment provider returned HTTP " + status);
+        }
+        circuitBreaker.onSuccess();
+
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(responseBody);
+        } catch (JsonProcessingException e) {
+            throw new PaymentProcessingException("Unreadable response from Paystack (HTTP " + status + ")", e);
+        }
+        if (status >= 400) {
+            throw new PaymentProcessingException("Paystack rejected the request: " + json.path("message").asText());
+        }
+        return json;
+    }
+
+    private void reject(String reason) {
+        Counter.builder("paystack.client.rejected")
+                .description("Paystack calls refused without being sent")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Getter
+    @Builder
+    public static class Settings {
+        private final String baseUrl;
+        private final String secretKey;
+        @Builder.Default
+        private final Duration connectTimeout = Duration.ofSeconds(2);
+        @Builder.Default
+        private final Duration readTimeout = Duration.ofSeconds(5);
+        @Builder.Default
+        private final Duration callTimeout = Duration.ofSeconds(10);
+        @Builder.Default
+        private final int maxIdleConnections = 10;
+        @Builder.Default
+        private final Duration keepAlive = Duration.ofMinutes(5);
+        @Builder.Default
+        private final int maxConcurrentCalls = 20;
+        @Builder.Default
+        private final Duration bulkheadWait = Duration.ofMillis(100);
+        @Builder.Default
+        private final int failureThreshold = 5;
+        @Builder.Default
+        private final Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    // Consecutive-failure breaker; lock-free so it never becomes the bottleneck it is guarding against
+    static final class CircuitBreaker {
+        private static final long CLOSED = Long.MIN_VALUE;
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicLong openedAt = new AtomicLong(CLOSED);
+        private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+        CircuitBreaker(int failureThreshold, Duration openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openDuration.toNanos();
+        }
+
+        boolean tryAcquire() {
+            long opened = openedAt.get();
+            if (opened == CLOSED) {
+                return true;
+            }
+            if (System.nanoTime() - opened < openNanos) {
+                return false;
+            }
+            // half-open: exactly one caller gets to probe
+            return trialInFlight.compareAndSet(false, true);
+        }
+
+        // The call was never sent, so it says nothing about Paystack
+        void release() {
+            trialInFlight.set(false);
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            openedAt.set(CLOSED);
+            trialInFlight.set(false);
+        }
+
+        void onFailure() {
+            if (trialInFlight.compareAndSet(true, false)) {
+                openedAt.set(System.nanoTime());
+                return;
+            }
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                openedAt.compareAndSet(CLOSED, System.nanoTime());
+            }
+        }
+
+        boolean isOpen() {
+            return openedAt.get() != CLOSED;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class PaystackClientConfig {
+
+    @Bean
+    public PaystackClient paystackClient(
+            @Value("${paystack.baseUrl}") String baseUrl,
+            @Value("${paystack.secretKey}") String secretKey,
+            @Value("${paystack.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${paystack.client.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${paystack.client.call-timeout-ms:10000}") long callTimeoutMs,
+            @Value("${paystack.client.max-idle-connections:10}") int maxIdleConnections,
+            @Value("${paystack.client.keep-alive-ms:300000}") long keepAliveMs,
+            @Value("${paystack.client.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${paystack.client.bulkhead-wait-ms:100}") long bulkheadWaitMs,
+            @Value("${paystack.client.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${paystack.client.circuit.open-ms:30000}") long openMs,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        PaystackClient.Settings settings = PaystackClient.Settings.builder()
+                .baseUrl(baseUrl)
+                .secretKey(secretKey)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .callTimeout(Duration.ofMillis(callTimeoutMs))
+                .maxIdleConnections(maxIdleConnections)
+                .keepAlive(Duration.ofMillis(keepAliveMs))
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .bulkheadWait(Duration.ofMillis(bulkheadWaitMs))
+                .failureThreshold(failureThreshold)
+                .openDuration(Duration.ofMillis(openMs))
+                .build();
+        return new PaystackClient(settings, objectMapper, meterRegistry);
+    }
+}
@@ -1,23 +1,19 @@
 package hotelBackend.services;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import hotelBackend.dtos.PaymentInitiateRequest;
 import hotelBackend.dtos.PaymentResponse;
-import hotelBackend.entities.*;
+import hotelBackend.exceptions.PaymentGatewayUnavailableException;
 import hotelBackend.exceptions.PaymentProcessingException;
-import hotelBackend.repositories.BookingRepository;
-import hotelBackend.repositories.ClientRepository;
-import hotelBackend.repositories.RoomRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.*;
 
 @Slf4j
@@ -27,9 +23,6 @@ public class PaystackService {
     @Value("${paystack.secretKey}")
     private String paystackSecretKey;
 
-    @Value("${paystack.baseUrl}")
-    private String paystackBaseUrl;
-
     @Value("${app.payment.callback-url}")
     private String callbackUrl;
 
@@ -42,215 +35,105 @@ public class PaystackService {
     @Value("${app.payment.cancel-url}")
     private String cancelUrl;
 
-    private final RoomService roomService;
-    private final ClientRepository clientRepository;
-    private final RoomRepository roomRepository;
-    private final BookingRepository bookingRepository;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final PaymentIntentService paymentIntentService;
+    private final PaystackClient paystackClient;
 
-    public PaystackService(RoomService roomService,
-                           ClientRepository clientRepository,
-                           RoomRepository roomRepository,
-                           BookingRepository bookingRepository,
-                           RestTemplate restTemplate,
-                           ObjectMapper objectMapper) {
-        this.roomService = roomService;
-        this.clientRepository = clientRepository;
-        this.roomRepository = roomRepository;
-        this.bookingRepository = bookingRepository;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+    public PaystackService(PaymentIntentService paymentIntentService,
+                           PaystackClient paystackClient) {
+        this.paymentIntentService = paymentIntentService;
+        this.paystackClient = paystackClient;
     }
 
-    @Transactional
+    // Not transactional on purpose: the room lock and DB connection are only held inside
+    // reserve/markInitiated/release, never across the Paystack round trip.
     public PaymentResponse initiatePayment(PaymentInitiateRequest request) {
-        RoomEntity room = roomRepository.findAvailableRoomWithLock(
-                        request.getRoomId(),
-                        request.getStartDate(),
-                        request.getEndDate())
-                .orElseThrow(() -> createDetailedAvailabilityError(
-                        request.getRoomId(),
-                        request.getStartDate(),
-                        request.getEndDate()));
+        PaymentIntentService.PaymentIntent intent = paymentIntentService.reserve(request);
 
         try {
-            BigDecimal totalAmount = calculateTotalAmount(request, room);
-            ClientEntity client = processClient(request);
-            return createPaystackPayment(room, client, request, totalAmount);
+            PaymentResponse response = createPaystackPayment(intent, request);
+            paymentIntentService.markInitiated(intent.getReference());
+            return response;
+        } catch (PaymentGatewayUnavailableException e) {
+            paymentIntentService.release(intent.getReference());
+            throw e;
         } catch (Exception e) {
             log.error("Payment creation failed", e);
+            paymentIntentService.release(intent.getReference());
             throw new PaymentProcessingException("Unable to process payment: " + e.getMessage());
         }
     }
 
-    @Transactional
     public boolean verifyPayment(String reference) {
+        // The webhook usually gets there before the customer's redirect does
+        if (paymentIntentService.isCompleted(reference)) {
+            return true;
+        }
         try {
-            HttpHeaders headers = createPaystackHeaders();
-            HttpEntity<?> entity = new HttpEntity<>(headers);
+            JsonNode response = paystackClient.verifyTransaction(reference);
 
-            ResponseEntity<JsonNode> response = restTemplate.exchange(
-                    paystackBaseUrl + "/transaction/verify/" + reference,
-                    HttpMethod.GET,
-                    entity,
-                    JsonNode.class
-            );
-
-            if (response.getBody() != null && response.getBody().get("status").asBoolean()) {
-                JsonNode data = response.getBody().get("data");
+            if (response.path("status").asBoolean()) {
+                JsonNode data = response.get("data");
                 if ("success".equals(data.get("status").asText())) {
-                    createBookingFromPayment(data);
+                    paymentIntentService.completeBooking(data);
                     return true;
                 }
             }
             return false;
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Payment verification failed", e);
             throw new PaymentProcessingException("Failed to verify payment: " + e.getMessage());
         }
     }
 
-    private void createBookingFromPayment(JsonNode data) {
+    // Paystack signs the raw webhook body with HMAC-SHA512 using the secret key
+    public boolean isValidWebhookSignature(String payload, String signature) {
+        if (payload == null || signature == null) {
+            return false;
+        }
         try {
-            JsonNode metadata = data.get("metadata");
-            Long roomId = Long.parseLong(metadata.get("roomId").asText());
-            Long clientId = Long.parseLong(metadata.get("clientId").asText());
-
-            RoomEntity room = roomRepository.findById(roomId)
-                    .orElseThrow(() -> new PaymentProcessingException("Room not found"));
-
-            ClientEntity client = clientRepository.findById(clientId)
-                    .orElseThrow(() -> new PaymentProcessingException("Client not found"));
-
-            // Check if booking already exists for this payment
-            if (bookingRepository.findByPaymentReference(data.get("reference").asText()).isPresent()) {
-                log.info("Booking already exists for payment reference: {}", data.get("reference").asText());
-                return;
-            }
-
-            BookingEntity booking = new BookingEntity();
-            booking.setRoom(room);
-            booking.setClient(client);
-            booking.setBookingStartDate(LocalDate.parse(metadata.get("startDate").asText()));
-            booking.setBookingEndDate(LocalDate.parse(metadata.get("endDate").asText()));
-            booking.setAmountPaid(new BigDecimal(metadata.get("totalAmount").asText()));
-            booking.setPaymentReference(data.get("reference").asText());
-            booking.setPaymentStatus("COMPLETED");
-
-            BookingEntity savedBooking = bookingRepository.save(booking);
-            client.getBookings().add(savedBooking);
-            clientRepository.save(client);
-
-            log.info("Successfully created booking {} for room {} and client {}",
-                    savedBooking.getId(), roomId, clientId);
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(paystackSecretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            byte[] expected = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            byte[] actual = HexFormat.of().parseHex(signature.trim().toLowerCase());
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
         } catch (Exception e) {
-            log.error("Failed to create booking from payment", e);
-            throw new PaymentProcessingException("Failed to create booking: " + e.getMessage());
+            log.error("Failed to check webhook signature", e);
+            return false;
         }
     }
 
-    private PaymentProcessingException createDetailedAvailabilityError(
-            Long roomId, LocalDate startDate, LocalDate endDate) {
-        RoomEntity room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new PaymentProcessingException("Room not found"));
-
-        if (room.isUnderMaintenance()) {
-            return new PaymentProcessingException("Room is under maintenance");
-        }
-
-        List<BookingEntity> conflicts = bookingRepository
-                .findConflictingBookings(roomId, startDate, endDate);
-
-        if (!conflicts.isEmpty()) {
-            BookingEntity conflict = conflicts.get(0);
-            return new PaymentProcessingException(String.format(
-                    "Room is already booked from %s to %s",
-                    conflict.getBookingStartDate(),
-                    conflict.getBookingEndDate()));
-        }
-
-        return new PaymentProcessingException("Room is not available");
-    }
-
     private PaymentResponse createPaystackPayment(
-            RoomEntity room,
-            ClientEntity client,
-            PaymentInitiateRequest request,
-            BigDecimal totalAmount) {
-
-        try {
-            HttpHeaders headers = createPaystackHeaders();
-            Map<String, Object> paymentRequest = createPaymentRequest(room, client, request, totalAmount);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(paymentRequest, headers);
+            PaymentIntentService.PaymentIntent intent,
+            PaymentInitiateRequest request) {
 
-            String paystackInitializeUrl = paystackBaseUrl + "/transaction/initialize";
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    paystackInitializeUrl, entity, String.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-                JsonNode data = jsonResponse.get("data");
-
-                log.info("Successfully created payment URL for room {} from {} to {}",
-                        room.getId(), request.getStartDate(), request.getEndDate());
-
-                return new PaymentResponse(
-                        data.get("authorization_url").asText(),
-                        data.get("reference").asText(),
-                        "Authorization URL created",
-                        true
-                );
-            }
+        Map<String, Object> paymentRequest = createPaymentRequest(intent, request);
+        JsonNode jsonResponse = paystackClient.initializeTransaction(paymentRequest);
 
+        if (!jsonResponse.path("status").asBoolean() || !jsonResponse.has("data")) {
             throw new PaymentProcessingException("Failed to get authorization URL from Paystack");
-        } catch (Exception e) {
-            log.error("Payment creation failed", e);
-            throw new PaymentProcessingException("Failed to create payment: " + e.getMessage());
         }
-    }
+        JsonNode data = jsonResponse.get("data");
 
-    private BigDecimal calculateTotalAmount(PaymentInitiateRequest request, RoomEntity room) {
-        long nights = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate());
-        if (nights <= 0) {
-            throw new IllegalArgumentException("Invalid booking duration");
-        }
-        return room.getPricePerNight().multiply(BigDecimal.valueOf(nights));
-    }
-
-    private ClientEntity processClient(PaymentInitiateRequest request) {
-        try {
-            Optional<ClientEntity> existingClient = clientRepository.findByPhoneNumber(request.getPhoneNumber());
-
-            if (existingClient.isPresent()) {
-                ClientEntity client = existingClient.get();
-                client.setName(request.getName());
-                client.setEmail(request.getEmail());
-                return clientRepository.save(client);
-            } else {
-                ClientEntity newClient = new ClientEntity();
-                newClient.setPhoneNumber(request.getPhoneNumber());
-                newClient.setName(request.getName());
-                newClient.setEmail(request.getEmail());
-                newClient.setBookings(new ArrayList<>());
-                return clientRepository.save(newClient);
-            }
-        } catch (Exception e) {
-            throw new PaymentProcessingException("Failed to process client information", e);
-        }
-    }
+        log.info("Successfully created payment URL for room {} from {} to {}",
+                intent.getRoomId(), request.getStartDate(), request.getEndDate());
 
-    private HttpHeaders createPaystackHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + paystackSecretKey);
-        return headers;
+        return new PaymentResponse(
+                data.get("authorization_url").asText(),
+                data.get("reference").asText(),
+                "Authorization URL created",
+                true
+        );
     }
 
-    private Map<String, Object> createPaymentRequest(RoomEntity room, ClientEntity client,
-                                                     PaymentInitiateRequest request, BigDecimal totalAmount) {
+    private Map<String, Object> createPaymentRequest(PaymentIntentService.PaymentIntent intent,
+                                                     PaymentInitiateRequest request) {
         Map<String, Object> paymentRequest = new HashMap<>();
-        String reference = generateReference(room.getId(), client.getId());
+        String reference = intent.getReference();
+        BigDecimal totalAmount = intent.getTotalAmount();
 
         paymentRequest.put("email", request.getEmail());
         paymentRequest.put("amount", totalAmount.multiply(new BigDecimal("100")).intValue());
@@ -261,8 +144,8 @@ public class PaystackService {
         paymentRequest.put("callback_url", successUrl + "?reference=" + reference);
 
         Map<String, String> metadata = new HashMap<>();
-        metadata.put("roomId", room.getId().toString());
-        metadata.put("clientId", client.getId().toString());
+        metadata.put("roomId", intent.getRoomId().toString());
+        metadata.put("clientId", intent.getClientId().toString());
         metadata.put("startDate", request.getStartDate().toString());
         metadata.put("endDate", request.getEndDate().toString());
         metadata.put("totalAmount", totalAmount.toString());
@@ -276,8 +159,4 @@ public class PaystackService {
         log.info("Created payment request: {}", paymentRequest);
         return paymentRequest;
     }
-
-    private String generateReference(Long roomId, Long clientId) {
-        return String.format("HOTEL-%d-%d-%d", roomId, clientId, System.currentTimeMillis());
-    }
 }
\ No newline at end of file
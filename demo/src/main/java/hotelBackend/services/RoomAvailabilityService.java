@@ -1,31 +1,64 @@
 package hotelBackend.services;
 
 import hotelBackend.dtos.RoomDTO;
+import hotelBackend.dtos.RoomSummary;
 import hotelBackend.entities.BookingEntity;
 import hotelBackend.entities.RoomEntity;
 import hotelBackend.repositories.BookingRepository;
 import hotelBackend.repositories.RoomRepository;
+import hotelBackend.repositories.RoomState;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional(readOnly = true)
 public class RoomAvailabilityService {
     private final RoomRepository roomRepository;
     private final BookingRepository bookingRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final RoomCalendarService calendarService;
+    private final RoomCatalogCache roomCatalogCache;
+    private final AvailabilityResultCache availabilityResultCache;
+    private final SingleFlight<List<LocalDate>, List<RoomDTO>> searches;
 
-    public RoomAvailabilityService(RoomRepository roomRepository, BookingRepository bookingRepository) {
+    public RoomAvailabilityService(RoomRepository roomRepository,
+                                   BookingRepository bookingRepository,
+                                   RoomOccupancyIndex occupancyIndex,
+                                   RoomCalendarService calendarService,
+                                   RoomCatalogCache roomCatalogCache,
+                                   AvailabilityResultCache availabilityResultCache,
+                                   MeterRegistry meterRegistry) {
         this.roomRepository = roomRepository;
         this.bookingRepository = bookingRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.calendarService = calendarService;
+        this.roomCatalogCache = roomCatalogCache;
+        this.availabilityResultCache = availabilityResultCache;
+        this.searches = new SingleFlight<>("rooms.available", meterRegistry);
     }
 
 
     public void validateAvailability(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomOccupancyIndex.Availability availability = occupancyIndex.check(roomId, startDate, endDate);
+        if (availability != null) {
+            if (availability.isUnderMaintenance()) {
+                throw new IllegalStateException("Room is under maintenance");
+            }
+            if (availability.getConflict() != null) {
+                throw new IllegalStateException("Room is not available for the selected dates");
+            }
+            return;
+        }
+
         RoomEntity room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new IllegalArgumentException("Room not found: " + roomId));
 
@@ -42,6 +75,10 @@ public class RoomAvailabilityService {
     }
 
     public boolean isRoomAvailable(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomOccupancyIndex.Availability availability = occupancyIndex.check(roomId, startDate, endDate);
+        if (availability != null) {
+            return availability.isAvailable();
+        }
         try {
             validateAvailability(roomId, startDate, endDate);
             return true;
@@ -51,24 +88,34 @@ public class RoomAvailabilityService {
     }
 
     public List<LocalDate> getNextAvailableDates(Long roomId) {
-        LocalDate startDate = LocalDate.now();
-        List<LocalDate> availableDates = new ArrayList<>();
-
-        // Look for next 30 days of availability
-        for (int i = 0; i < 30; i++) {
-            LocalDate checkDate = startDate.plusDays(i);
-            if (isRoomAvailable(roomId, checkDate, checkDate.plusDays(1))) {
-                availableDates.add(checkDate);
-            }
+        Optional<RoomState> room = roomRepository.findRoomStateById(roomId);
+        if (room.isEmpty() || room.get().isUnderMaintenance()) {
+            return new ArrayList<>();
         }
-
-        return availableDates;
+        return calendarService.findNextAvailableDates(List.of(roomId)).get(roomId);
     }
 
+    // On a miss, identical searches arriving together share one query. No transaction here, so
+    // callers waiting on another's result don't hold a pooled connection meanwhile.
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<RoomDTO> findAvailableRooms(LocalDate startDate, LocalDate endDate) {
-        return roomRepository.findAllAvailableRooms(startDate, endDate).stream()
-                .filter(room -> !room.isUnderMaintenance())
-                .map(RoomDTO::fromEntity)  // Convert to DTO
-                .collect(Collectors.toList());
+        return availabilityResultCache.get(startDate, endDate, "available",
+                () -> searches.execute(List.of(startDate, endDate), () -> loadAvailableRooms(startDate, endDate)));
+    }
+
+    private List<RoomDTO> loadAvailableRooms(LocalDate startDate, LocalDate endDate) {
+        // The catalog says which rooms exist; the index only answers if it knows every one of them
+        List<RoomSummary> catalog = roomCatalogCache.getAll();
+        List<RoomSummary> rooms = occupancyIndex.findAvailableRoomIds(catalog.stream().map(RoomSummary::id).toList(),
+                        startDate, endDate)
+                .map(free -> {
+                    Set<Long> freeIds = new HashSet<>(free);
+                    return catalog.stream().filter(room -> freeIds.contains(room.id())).toList();
+                })
+                .orElseGet(() -> roomRepository.findAllAvailableRooms(startDate, endDate));
+        return rooms.stream()
+                .filter(room -> !room.underMaintenance())
+                .map(RoomDTO::fromSummary)  // Convert to DTO
+                .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,278 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hotelBackend.dtos.BulkRoomResult;
+import hotelBackend.dtos.RoomImportRow;
+import hotelBackend.dtos.RoomPriceChange;
+import hotelBackend.events.RoomChangedEvent;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk room import and bulk repricing for the admin API.
+ *
+ * <p>The upload is streamed and handled in chunks of {@code app.rooms.bulk.chunk-size} rows, each
+ * in its own transaction: one set query checks the chunk's room numbers, then the chunk is written
+ * with a single JDBC batch (imports) or a single {@code UPDATE ... FROM (VALUES ...)} (prices).
+ * Every input row gets a result, and a bad row never stops the rest. Chunks that were written stay
+ * written if a later part of the body turns out to be malformed.</p>
+ */
+@Slf4j
+@Service
+public class RoomBulkService {
+
+    private static final String INSERT_ROOM = """
+            INSERT INTO rooms (room_number, room_type, description, image_url, under_maintenance,
+                               price_per_night, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Value("${app.rooms.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public RoomBulkService(JdbcTemplate jdbcTemplate,
+                           NamedParameterJdbcTemplate namedJdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper,
+                           Validator validator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public BulkRoomResult importRooms(InputStream body, MediaType contentType) throws IOException {
+        BulkRoomResult result = new BulkRoomResult();
+        Set<String> seen = new HashSet<>();
+        List<BulkRowReader.Parsed<RoomImportRow>> chunk = new ArrayList<>(chunkSize);
+
+        new BulkRowReader<>(objectMapper, RoomImportRow.class).read(body, contentType, parsed -> {
+            chunk.add(parsed);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, seen, result);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seen, result);
+        }
+
+        log.info("Bulk room import: {} created, {} rejected", result.getSucceeded(), result.getRejected());
+        return result;
+    }
+
+    public BulkRoomResult updatePrices(InputStream body, MediaType contentType) throws IOException {
+        BulkRoomResult result = new BulkRoomResult();
+        Set<String> seen = new HashSet<>();
+        List<BulkRowReader.Parsed<RoomPriceChange>> chunk = new ArrayList<>(chunkSize);
+
+        new BulkRowReader<>(objectMapper, RoomPriceChange.class).read(body, contentType, parsed -> {
+            chunk.add(parsed);
+            if (chunk.size() == chunkSize) {
+                repriceChunk(chunk, seen, result);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            repriceChunk(chunk, seen, result);
+        }
+
+        log.info("Bulk price update: {} updated, {} rejected", result.getSucceeded(), result.getRejected());
+        return result;
+    }
+
+    private void importChunk(List<BulkRowReader.Parsed<RoomImportRow>> chunk, Set<String> seen, BulkRoomResult result) {
+        String[] errors = new String[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkRowReader.Parsed<RoomImportRow> parsed = chunk.get(i);
+            errors[i] = parsed.error() != null ? parsed.error() : validate(parsed.value());
+            if (errors[i] == null) {
+                parsed.value().setRoomNumber(parsed.value().getRoomNumber().trim());
+                if (!seen.add(parsed.value().getRoomNumber())) {
+                    errors[i] = "Duplicate room number in this upload";
+                }
+            }
+        }
+
+        Map<String, Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> insertRooms(chunk, errors));
+        } catch (DuplicateKeyException e) {
+            // someone created one of these room numbers after our check; the retry's check will see it
+            log.info("Room number taken during bulk import, retrying chunk");
+            try {
+                ids = transactionTemplate.execute(status -> insertRooms(chunk, errors));
+            } catch (DuplicateKeyException again) {
+                // Still racing another writer. Earlier chunks are committed, so report this one's
+                // rows instead of failing the whole upload.
+                log.warn("Room numbers taken concurrently twice, rejecting chunk of {} rows", chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (errors[i] == null) {
+                        errors[i] = "Room number taken concurrently, retry this row";
+                    }
+                }
+                ids = Map.of();
+            }
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkRowReader.Parsed<RoomImportRow> parsed = chunk.get(i);
+            String roomNumber = parsed.value() != null ? parsed.value().getRoomNumber() : null;
+            result.add(errors[i] == null
+                    ? new BulkRoomResult.Row(parsed.row(), roomNumber, BulkRoomResult.Status.CREATED, ids.get(roomNumber), null)
+                    : new BulkRoomResult.Row(parsed.row(), roomNumber, BulkRoomResult.Status.REJECTED, null, errors[i]));
+        }
+    }
+
+    // Marks rows whose room number already exists, batch-inserts the rest and returns their ids
+    private Map<String, Long> insertRooms(List<BulkRowReader.Parsed<RoomImportRow>> chunk, String[] errors) {
+        List<RoomImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] == null) {
+                rows.add(chunk.get(i).value());
+            }
+        }
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT room_number FROM rooms WHERE room_number IN (:numbers)",
+                new MapSqlParameterSource("numbers", rows.stream().map(RoomImportRow::getRoomNumber).toList()),
+                String.class));
+        if (!existing.isEmpty()) {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (errors[i] == null && existing.contains(chunk.get(i).value().getRoomNumber())) {
+                    errors[i] = "Room number already exists";
+                }
+            }
+            rows.removeIf(row -> existing.contains(row.getRoomNumber()));
+            if (rows.isEmpty()) {
+                return Map.of();
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ROOM, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getRoomNumber());
+            ps.setString(2, row.getRoomType().name());
+            ps.setString(3, row.getDescription());
+            ps.setString(4, row.getImageUrl());
+            ps.setBoolean(5, row.isUnderMaintenance());
+            ps.setBigDecimal(6, row.getPricePerNight());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+
+        Map<String, Long> ids = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, room_number FROM rooms WHERE room_number IN (:numbers)",
+                new MapSqlParameterSource("numbers", rows.stream().map(RoomImportRow::getRoomNumber).toList()),
+                rs -> {
+                    ids.put(rs.getString("room_number"), rs.getLong("id"));
+                });
+        for (RoomImportRow row : rows) {
+            eventPublisher.publishEvent(RoomChangedEvent.created(ids.get(row.getRoomNumber()), row.isUnderMaintenance()));
+        }
+        return ids;
+    }
+
+    private void repriceChunk(List<BulkRowReader.Parsed<RoomPriceChange>> chunk, Set<String> seen, BulkRoomResult result) {
+        String[] errors = new String[chunk.size()];
+        List<RoomPriceChange> changes = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkRowReader.Parsed<RoomPriceChange> parsed = chunk.get(i);
+            errors[i] = parsed.error() != null ? parsed.error() : validate(parsed.value());
+            if (errors[i] == null) {
+                parsed.value().setRoomNumber(parsed.value().getRoomNumber().trim());
+                if (seen.add(parsed.value().getRoomNumber())) {
+                    changes.add(parsed.value());
+                } else {
+                    errors[i] = "Duplicate room number in this upload";
+                }
+            }
+        }
+
+        Map<String, Long> updated = changes.isEmpty()
+                ? Map.of()
+                : transactionTemplate.execute(status -> updatePrices(changes));
+
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkRowReader.Parsed<RoomPriceChange> parsed = chunk.get(i);
+            String roomNumber = parsed.value() != null ? parsed.value().getRoomNumber() : null;
+            if (errors[i] == null && !updated.containsKey(roomNumber)) {
+                errors[i] = "Room not found";
+            }
+            result.add(errors[i] == null
+                    ? new BulkRoomResult.Row(parsed.row(), roomNumber, BulkRoomResult.Status.UPDATED, updated.get(roomNumber), null)
+                    : new BulkRoomResult.Row(parsed.row(), roomNumber, BulkRoomResult.Status.REJECTED, null, errors[i]));
+        }
+    }
+
+    // One statement for the whole chunk; rooms that don't exist simply aren't returned
+    private Map<String, Long> updatePrices(List<RoomPriceChange> changes) {
+        String values = changes.stream().map(change -> "(?, ?::numeric)").collect(Collectors.joining(", "));
+        Object[] args = new Object[changes.size() * 2];
+        for (int i = 0; i < changes.size(); i++) {
+            args[2 * i] = changes.get(i).getRoomNumber();
+            args[2 * i + 1] = changes.get(i).getPricePerNight();
+        }
+
+        Map<String, Long> updated = new HashMap<>();
+        jdbcTemplate.query("""
+                UPDATE rooms r
+                SET price_per_night = v.price, updated_at = now()
+                FROM (VALUES %s) AS v(room_number, price)
+                WHERE r.room_number = v.room_number
+                RETURNING r.id, r.room_number, r.under_maintenance
+                """.formatted(values), rs -> {
+            long id = rs.getLong("id");
+            updated.put(rs.getString("room_number"), id);
+            eventPublisher.publishEvent(RoomChangedEvent.updated(id, rs.getBoolean("under_maintenance")));
+        }, args);
+        return updated;
+    }
+
+    private <T> String validate(T row) {
+        Set<ConstraintViolation<T>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,143 @@
+package hotelBackend.services;
+
+import hotelBackend.dtos.RoomCalendarResponse;
+import hotelBackend.dtos.RoomCalendarResponse.DateRange;
+import hotelBackend.repositories.BookedStay;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.RoomRepository;
+import hotelBackend.repositories.RoomState;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes free nights for many rooms at once: booked intervals for the whole set are
+ * read in one go (from the occupancy index, or a single query when the index can't answer)
+ * and the gaps between them are found in one sweep per room.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RoomCalendarService {
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final SingleFlight<String, RoomCalendarResponse> calendars;
+
+    @Value("${app.availability.calendar.horizon-days:30}")
+    private int horizonDays;
+
+    @Value("${app.availability.calendar.max-horizon-days:366}")
+    private int maxHorizonDays;
+
+    public RoomCalendarService(RoomRepository roomRepository,
+                               BookingRepository bookingRepository,
+                               RoomOccupancyIndex occupancyIndex,
+                               MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.calendars = new SingleFlight<>("rooms.calendar", meterRegistry);
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    // Identical calendar requests arriving together share one computation. No transaction here,
+    // so callers waiting on another's result don't hold a pooled connection meanwhile.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public RoomCalendarResponse getCalendar(Long roomId, LocalDate from, Integer days) {
+        LocalDate effectiveFrom = from != null ? from : LocalDate.now();
+        int effectiveDays = days != null ? days : horizonDays;
+        if (effectiveDays <= 0 || effectiveDays > maxHorizonDays) {
+            throw new IllegalArgumentException("days must be between 1 and " + maxHorizonDays);
+        }
+        return calendars.execute(roomId + "|" + effectiveFrom + "|" + effectiveDays,
+                () -> loadCalendar(roomId, effectiveFrom, effectiveFrom.plusDays(effectiveDays)));
+    }
+
+    private RoomCalendarResponse loadCalendar(Long roomId, LocalDate effectiveFrom, LocalDate to) {
+        RoomState room = roomRepository.findRoomStateById(roomId)
+                .orElseThrow(() -> new EntityNotFoundException("Room not found with ID: " + roomId));
+
+        List<DateRange> freeRanges = room.isUnderMaintenance()
+                ? List.of()
+                : findFreeRanges(List.of(roomId), effectiveFrom, to).get(roomId);
+
+        return RoomCalendarResponse.builder()
+                .roomId(roomId)
+                .from(effectiveFrom)
+                .to(to)
+                .underMaintenance(room.isUnderMaintenance())
+                .freeRanges(freeRanges)
+                .availableDates(toNights(freeRanges))
+                .build();
+    }
+
+    // Free single nights over the configured horizon starting today, per room
+    public Map<Long, List<LocalDate>> findNextAvailableDates(Collection<Long> roomIds) {
+        LocalDate from = LocalDate.now();
+        Map<Long, List<LocalDate>> result = new HashMap<>();
+        findFreeRanges(roomIds, from, from.plusDays(horizonDays))
+                .forEach((roomId, ranges) -> result.put(roomId, toNights(ranges)));
+        return result;
+    }
+
+    public Map<Long, List<DateRange>> findFreeRanges(Collection<Long> roomIds, LocalDate from, LocalDate to) {
+        Map<Long, List<DateRange>> result = new HashMap<>();
+        if (roomIds.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<RoomOccupancyIndex.OccupiedStay>> stays = occupancyIndex.findStays(roomIds, from, to)
+                .orElseGet(() -> loadStays(roomIds, from, to));
+
+        for (Long roomId : roomIds) {
+            List<DateRange> free = new ArrayList<>();
+            LocalDate cursor = from;
+            for (RoomOccupancyIndex.OccupiedStay stay : stays.getOrDefault(roomId, List.of())) {
+                if (stay.getStartDate().isAfter(cursor)) {
+                    free.add(new DateRange(cursor, stay.getStartDate()));
+                }
+                if (stay.getEndDate().isAfter(cursor)) {
+                    cursor = stay.getEndDate();
+                }
+            }
+            if (cursor.isBefore(to)) {
+                free.add(new DateRange(cursor, to));
+            }
+            result.put(roomId, free);
+        }
+        return result;
+    }
+
+    private Map<Long, List<RoomOccupancyIndex.OccupiedStay>> loadStays(Collection<Long> roomIds,
+                                                                       LocalDate from, LocalDate to) {
+        Map<Long, List<RoomOccupancyIndex.OccupiedStay>> stays = new HashMap<>();
+        for (BookedStay stay : bookingRepository.findStaysForRooms(roomIds, from, to)) {
+            stays.computeIfAbsent(stay.getRoomId(), id -> new ArrayList<>())
+                    .add(new RoomOccupancyIndex.OccupiedStay(stay.getId(), stay.getStartDate(), stay.getEndDate()));
+        }
+        return stays;
+    }
+
+    private static List<LocalDate> toNights(List<DateRange> ranges) {
+        List<LocalDate> nights = new ArrayList<>();
+        for (DateRange range : ranges) {
+            for (LocalDate night = range.getStartDate(); night.isBefore(range.getEndDate()); night = night.plusDays(1)) {
+                nights.add(night);
+            }
+        }
+        return nights;
+    }
+}
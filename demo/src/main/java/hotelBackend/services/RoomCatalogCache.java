@@ -0,0 +1,147 @@
+package hotelBackend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hotelBackend.dtos.RoomSummary;
+import hotelBackend.repositories.RoomRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache of room summaries, by id and as the full catalog. Entries are evicted
+ * when a room changes on this node or, via {@link RoomCatalogInvalidator}, on another node; the
+ * TTL is only a backstop for a missed notification.
+ *
+ * <p>Loads run outside the cache (no {@code get(key, loader)}) so a DB round trip never holds a
+ * map lock, and a load that raced an eviction is not stored: every eviction bumps a generation
+ * and a load only puts its result if the generation is unchanged. Hit and miss counts are
+ * published as {@code cache.gets{cache=rooms.byId|rooms.all}}.</p>
+ */
+@Slf4j
+@Component
+public class RoomCatalogCache {
+
+    private static final String ALL = "all";
+
+    private final RoomRepository roomRepository;
+    private final Cache<Long, RoomSummary> byId;
+    private final Cache<String, List<RoomSummary>> catalog;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RoomCatalogCache(RoomRepository roomRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.rooms.cache.max-size:10000}") long maxSize,
+                            @Value("${app.rooms.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.roomRepository = roomRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "rooms.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "rooms.all");
+    }
+
+    public Optional<RoomSummary> get(Long roomId) {
+        RoomSummary cached = byId.getIfPresent(roomId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seen = generation.get();
+        Optional<RoomSummary> loaded = roomRepository.findSummaryById(roomId);
+        loaded.ifPresent(room -> putIfCurrent(seen, () -> byId.put(roomId, room)));
+        return loaded;
+    }
+
+    // Every room ordered by id
+    public List<RoomSummary> getAll() {
+        List<RoomSummary> cached = catalog.getIfPresent(ALL);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = generation.get();
+        List<RoomSummary> loaded = List.copyOf(roomRepository.findAllSummaries());
+        putIfCurrent(seen, () -> {
+            catalog.put(ALL, loaded);
+            Map<Long, RoomSummary> rooms = new HashMap<>();
+            loaded.forEach(room -> rooms.put(room.id(), room));
+            byId.putAll(rooms);
+        });
+        return loaded;
+    }
+
+    // The given rooms that exist, ordered by id; one query for whichever aren't cached
+    public List<RoomSummary> getAll(Collection<Long> roomIds) {
+        Map<Long, RoomSummary> found = new HashMap<>(byId.getAllPresent(roomIds));
+        List<Long> missing = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            if (!found.containsKey(roomId)) {
+                missing.add(roomId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long seen = generation.get();
+            List<RoomSummary> loaded = roomRepository.findSummariesByIdIn(missing);
+            Map<Long, RoomSummary> rooms = new HashMap<>();
+            loaded.forEach(room -> rooms.put(room.id(), room));
+            putIfCurrent(seen, () -> byId.putAll(rooms));
+            found.putAll(rooms);
+        }
+        List<RoomSummary> result = new ArrayList<>(found.values());
+        result.sort((a, b) -> Long.compare(a.id(), b.id()));
+        return result;
+    }
+
+    public void evict(Long roomId) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            byId.invalidate(roomId);
+            catalog.invalidateAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evictAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            byId.invalidateAll();
+            catalog.invalidateAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Same lock as the evictions, so none can slip between the generation check and the put
+    private void putIfCurrent(long seen, Runnable put) {
+        lock.lock();
+        try {
+            if (generation.get() == seen) {
+                put.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package hotelBackend.services;
+
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.events.RoomChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Keeps the per-node room and availability state consistent across app nodes. After a room
+ * change commits, the local {@link RoomCatalogCache} entry is evicted and a
+ * {@code NOTIFY room_catalog} ({@code node:room:type:id:underMaintenance}) is sent; every node
+ * LISTENs on its own connection (outside the pool) and republishes a notification from another
+ * node as a remote {@link RoomChangedEvent}, so its catalog cache, {@link RoomOccupancyIndex}
+ * (maintenance flag, deleted rooms) and {@link AvailabilityResultCache} all hear about it.
+ *
+ * <p>Booking changes go over the same channel ({@code node:booking:type:id:room:start:end}) and
+ * are republished on the other nodes as remote {@link BookingChangedEvent}s, so their
+ * {@link RoomOccupancyIndex} and {@link AvailabilityResultCache} follow along without waiting
+ * for the next index refresh.</p>
+ *
+ * <p>Notifications sent while a node isn't listening are lost, so the listener drops the whole
+ * cache whenever it (re)connects, and on a reconnect also reloads the occupancy index.</p>
+ */
+@Slf4j
+@Component
+public class RoomCatalogInvalidator {
+
+    static final String CHANNEL = "room_catalog";
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final RoomCatalogCache cache;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final AvailabilityResultCache availabilityResultCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${app.rooms.cache.notify.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rooms.cache.notify.poll-ms:5000}")
+    private int pollMs;
+
+    @Value("${spring.datasource.url:}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listener;
+
+    public RoomCatalogInvalidator(RoomCatalogCache cache,
+                                  RoomOccupancyIndex occupancyIndex,
+                                  AvailabilityResultCache availabilityResultCache,
+                                  ApplicationEventPublisher eventPublisher,
+                                  JdbcTemplate jdbcTemplate) {
+        this.cache = cache;
+        this.occupancyIndex = occupancyIndex;
+        this.availabilityResultCache = availabilityResultCache;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        cache.evict(event.getRoomId());
+        if (event.isRemote()) {
+            return;
+        }
+        notifyOthers(String.join(":", "room", event.getType().name(), String.valueOf(event.getRoomId()),
+                String.valueOf(event.isUnderMaintenance())), "room " + event.getRoomId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        notifyOthers(String.join(":", "booking", event.getType().name(), String.valueOf(event.getBookingId()),
+                String.valueOf(event.getRoomId()), event.getStartDate().toString(), event.getEndDate().toString()),
+                "booking " + event.getBookingId());
+    }
+
+    private void notifyOthers(String message, String subject) {
+        if (!running) {
+            return;
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+            }, CHANNEL, nodeId + ":" + message);
+        } catch (DataAccessException e) {
+            log.warn("Could not notify other nodes about {}: {}", subject, e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Cross-node room cache invalidation disabled");
+            return;
+        }
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("room-catalog-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            closeQuietly(connection);
+        }
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                cache.evictAll();
+                if (reconnect) {
+                    // booking changes from other nodes may have been missed while disconnected
+                    availabilityResultCache.evictAll();
+                    occupancyIndex.reload();
+                }
+                reconnect = true;
+                backoffMs = 1000;
+                log.info("Listening for room catalog changes from other nodes");
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Room catalog listener lost its connection, retrying in {} ms: {}", backoffMs, e.getMessage());
+                cache.evictAll();
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    void handle(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        Long roomId = null;
+        RoomChangedEvent room = null;
+        BookingChangedEvent booking = null;
+        try {
+            if (parts.length == 2) {
+                // node:roomId, as sent by nodes that predate room events on the channel
+                roomId = Long.valueOf(parts[1]);
+            } else if (parts.length == 5 && "room".equals(parts[1])) {
+                room = RoomChangedEvent.fromOtherNode(
+                        RoomChangedEvent.Type.valueOf(parts[2]),
+                        Long.valueOf(parts[3]),
+                        parseBoolean(parts[4]));
+            } else if (parts.length == 7 && "booking".equals(parts[1])) {
+                booking = BookingChangedEvent.fromOtherNode(
+                        BookingChangedEvent.Type.valueOf(parts[2]),
+                        Long.valueOf(parts[3]),
+                        Long.valueOf(parts[4]),
+                        LocalDate.parse(parts[5]),
+                        LocalDate.parse(parts[6]));
+            }
+        } catch (RuntimeException e) {
+            // falls through to the warning below
+        }
+        if (roomId != null) {
+            cache.evict(roomId);
+        } else if (room != null) {
+            eventPublisher.publishEvent(room);
+        } else if (booking != null) {
+            eventPublisher.publishEvent(booking);
+        } else {
+            log.warn("Ignoring malformed room catalog notification: {}", payload);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (!"true".equals(value) && !"false".equals(value)) {
+            throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // shutting down anyway
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package hotelBackend.services;
+
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.events.RoomChangedEvent;
+import hotelBackend.repositories.BookedStay;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.RoomRepository;
+import hotelBackend.repositories.RoomState;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory occupancy of every room, kept as a sorted array of booked [start, end) night
+ * intervals per room (epoch days). Loaded at startup, updated from booking/room events after
+ * commit and periodically re-synced from the database.
+ *
+ * <p>This is a read model only: the bookings_no_overlap constraint in the database is still
+ * what guards the final write. Lookups return {@code null}/empty when the index can't
+ * answer (not loaded yet, unknown room, or a date before the loaded window) and callers fall
+ * back to the database.</p>
+ */
+@Slf4j
+@Component
+public class RoomOccupancyIndex {
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+
+    @Value("${app.availability.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile Map<Long, RoomOccupancy> rooms;
+    private volatile long loadedFrom;
+
+    // A ReentrantLock rather than synchronized so a virtual thread waiting here doesn't pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private List<Consumer<Map<Long, RoomOccupancy>>> journal;
+
+    public RoomOccupancyIndex(RoomRepository roomRepository, BookingRepository bookingRepository) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.index.refresh-interval-ms:300000}",
+            initialDelayString = "${app.availability.index.refresh-interval-ms:300000}")
+    public void reload() {
+        if (!enabled || !reloading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lock.lock();
+            try {
+                journal = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            LocalDate from = LocalDate.now();
+            Map<Long, RoomOccupancy> fresh = new ConcurrentHashMap<>();
+            for (RoomState room : roomRepository.findAllRoomStates()) {
+                fresh.put(room.getId(), RoomOccupancy.empty(room.isUnderMaintenance()));
+            }
+
+            Map<Long, List<BookedStay>> staysByRoom = new HashMap<>();
+            for (BookedStay stay : bookingRepository.findStaysEndingAfter(from)) {
+                staysByRoom.computeIfAbsent(stay.getRoomId(), id -> new ArrayList<>()).add(stay);
+            }
+            staysByRoom.forEach((roomId, stays) -> {
+                RoomOccupancy occupancy = fresh.get(roomId);
+                if (occupancy != null) {
+                    fresh.put(roomId, occupancy.withStays(stays));
+                }
+            });
+
+            lock.lock();
+            try {
+                // replay whatever committed while we were reading, then swap
+                journal.forEach(change -> change.accept(fresh));
+                journal = null;
+                rooms = fresh;
+                loadedFrom = from.toEpochDay();
+            } finally {
+                lock.unlock();
+            }
+            log.info("Room occupancy index loaded: {} rooms, {} upcoming bookings",
+                    fresh.size(), staysByRoom.values().stream().mapToInt(List::size).sum());
+        } catch (Exception e) {
+            lock.lock();
+            try {
+                journal = null;
+            } finally {
+                lock.unlock();
+            }
+            log.error("Failed to load room occupancy index, availability checks will use the database", e);
+        } finally {
+            reloading.set(false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        long start = event.getStartDate().toEpochDay();
+        long end = event.getEndDate().toEpochDay();
+        if (event.getType() == BookingChangedEvent.Type.CREATED) {
+            apply(index -> index.computeIfPresent(event.getRoomId(),
+                    (id, occupancy) -> occupancy.withStay(event.getBookingId(), start, end)));
+        } else {
+            apply(index -> index.computeIfPresent(event.getRoomId(),
+                    (id, occupancy) -> occupancy.withoutStay(event.getBookingId())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (event.getType() == RoomChangedEvent.Type.DELETED) {
+            apply(index -> index.remove(event.getRoomId()));
+        } else {
+            apply(index -> index.compute(event.getRoomId(), (id, occupancy) -> occupancy == null
+                    ? RoomOccupancy.empty(event.isUnderMaintenance())
+                    : occupancy.withMaintenance(event.isUnderMaintenance())));
+        }
+    }
+
+    private void apply(Consumer<Map<Long, RoomOccupancy>> change) {
+        lock.lock();
+        try {
+            Map<Long, RoomOccupancy> current = rooms;
+            if (current != null) {
+                change.accept(current);
+            }
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return rooms != null;
+    }
+
+    // Availability of one room for the nights [startDate, endDate), or null if the index can't tell.
+    public Availability check(Long roomId, LocalDate startDate, LocalDate endDate) {
+        Map<Long, RoomOccupancy> current = rooms;
+        if (current == null || roomId == null || startDate.toEpochDay() < loadedFrom) {
+            return null;
+        }
+        RoomOccupancy occupancy = current.get(roomId);
+        if (occupancy == null) {
+            return null;
+        }
+        return new Availability(occupancy.underMaintenance,
+                occupancy.firstConflict(startDate.toEpochDay(), endDate.toEpochDay()));
+    }
+
+    // Which of the given rooms are free (and not under maintenance) for [startDate, endDate), in the
+    // given order, if the index knows all of them. A room created on another node or by a bulk import
+    // isn't known until the next refresh, and leaving it out silently would hide it from searches.
+    public Optional<List<Long>> findAvailableRoomIds(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        Map<Long, RoomOccupancy> current = rooms;
+        if (current == null || startDate.toEpochDay() < loadedFrom) {
+            return Optional.empty();
+        }
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        List<Long> available = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            RoomOccupancy occupancy = current.get(roomId);
+            if (occupancy == null) {
+                return Optional.empty();
+            }
+            if (!occupancy.underMaintenance && occupancy.firstConflict(from, to) == null) {
+                available.add(roomId);
+            }
+        }
+        return Optional.of(available);
+    }
+
+    // Stays overlapping [from, to) for each of the given rooms, if the index knows all of them.
+    public Optional<Map<Long, List<OccupiedStay>>> findStays(Collection<Long> roomIds, LocalDate from, LocalDate to) {
+        Map<Long, RoomOccupancy> current = rooms;
+        if (current == null || from.toEpochDay() < loadedFrom) {
+            return Optional.empty();
+        }
+        Map<Long, List<OccupiedStay>> stays = new HashMap<>();
+        for (Long roomId : roomIds) {
+            RoomOccupancy occupancy = current.get(roomId);
+            if (occupancy == null) {
+                return Optional.empty();
+            }
+            stays.put(roomId, occupancy.overlapping(from.toEpochDay(), to.toEpochDay()));
+        }
+        return Optional.of(stays);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Availability {
+        private final boolean underMaintenance;
+        private final OccupiedStay conflict;
+
+        public boolean isAvailable() {
+            return !underMaintenance && conflict == null;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class OccupiedStay {
+        private final Long bookingId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+    }
+
+    // Immutable; every change produces a copy so readers never need a lock.
+    static final class RoomOccupancy {
+        private static final long[] NONE = new long[0];
+
+        final boolean underMaintenance;
+        final long[] bookingIds;
+        final long[] starts;
+        final long[] ends;
+        final long longestStay;
+
+        private RoomOccupancy(boolean underMaintenance, long[] bookingIds, long[] starts, long[] ends) {
+            this.underMaintenance = underMaintenance;
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+            long longest = 0;
+            for (int i = 0; i < starts.length; i++) {
+                longest = Math.max(longest, ends[i] - starts[i]);
+            }
+            this.longestStay = longest;
+        }
+
+        static RoomOccupancy empty(boolean underMaintenance) {
+            return new RoomOccupancy(underMaintenance, NONE, NONE, NONE);
+        }
+
+        RoomOccupancy withMaintenance(boolean maintenance) {
+            return new RoomOccupancy(maintenance, bookingIds, starts, ends);
+        }
+
+        RoomOccupancy withStays(List<BookedStay> stays) {
+            List<BookedStay> sorted = new ArrayList<>(stays);
+            sorted.sort(Comparator.comparing(BookedStay::getStartDate));
+            long[] ids = new long[sorted.size()];
+            long[] from = new long[sorted.size()];
+            long[] to = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                BookedStay stay = sorted.get(i);
+                ids[i] = stay.getId();
+                from[i] = stay.getStartDate().toEpochDay();
+                to[i] = stay.getEndDate().toEpochDay();
+            }
+            return new RoomOccupancy(underMaintenance, ids, from, to);
+        }
+
+        RoomOccupancy withStay(long bookingId, long start, long end) {
+            RoomOccupancy base = withoutStay(bookingId);
+            int at = lowerBound(base.starts, start);
+            return new RoomOccupancy(underMaintenance,
+                    insert(base.bookingIds, at, bookingId),
+                    insert(base.starts, at, start),
+                    insert(base.ends, at, end));
+        }
+
+        RoomOccupancy withoutStay(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    return new RoomOccupancy(underMaintenance,
+                            remove(bookingIds, i), remove(starts, i), remove(ends, i));
+                }
+            }
+            return this;
+        }
+
+        // First stay overlapping [from, to). Only stays starting within longestStay of 'from' can reach it.
+        OccupiedStay firstConflict(long from, long to) {
+            for (int i = lowerBound(starts, from - longestStay); i < starts.length && starts[i] < to; i++) {
+                if (ends[i] > from) {
+                    return new OccupiedStay(bookingIds[i],
+                            LocalDate.ofEpochDay(starts[i]), LocalDate.ofEpochDay(ends[i]));
+                }
+            }
+            return null;
+        }
+
+        List<OccupiedStay> overlapping(long from, long to) {
+            List<OccupiedStay> result = new ArrayList<>();
+            for (int i = lowerBound(starts, from - longestStay); i < starts.length && starts[i] < to; i++) {
+                if (ends[i] > from) {
+                    result.add(new OccupiedStay(bookingIds[i],
+                            LocalDate.ofEpochDay(starts[i]), LocalDate.ofEpochDay(ends[i])));
+                }
+            }
+            return result;
+        }
+
+        private static int lowerBound(long[] values, long key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long[] insert(long[] values, int at, long value) {
+            long[] result = Arrays.copyOf(values, values.length + 1);
+            System.arraycopy(values, at, result, at + 1, values.length - at);
+            result[at] = value;
+            return result;
+        }
+
+        private static long[] remove(long[] values, int at) {
+            long[] result = Arrays.copyOf(values, values.length - 1);
+            System.arraycopy(values, at + 1, result, at, values.length - at - 1);
+            return result;
+        }
+    }
+}
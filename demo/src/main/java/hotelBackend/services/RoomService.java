@@ -2,34 +2,69 @@ package hotelBackend.services;
 
 import hotelBackend.dtos.RoomAvailabilityResponse;
 import hotelBackend.dtos.RoomDTO;
+import hotelBackend.dtos.RoomPage;
+import hotelBackend.dtos.RoomSummary;
 import hotelBackend.entities.RoomEntity;
 import hotelBackend.entities.RoomType;
+import hotelBackend.events.RoomChangedEvent;
 import hotelBackend.repositories.BookingRepository;
 import hotelBackend.repositories.ClientRepository;
+import hotelBackend.repositories.RoomCatalogVersion;
 import hotelBackend.repositories.RoomRepository;
+import hotelBackend.repositories.RoomSpecifications;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
 public class RoomService {
     private final RoomRepository roomRepository;
     private final BookingRepository bookingRepository;
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<String, RoomPage> searches;
 
-    public RoomService(RoomRepository roomRepository, BookingRepository bookingRepository, ClientRepository clientRepository) {
+    public RoomService(RoomRepository roomRepository, BookingRepository bookingRepository,
+                       ClientRepository clientRepository, ApplicationEventPublisher eventPublisher,
+                       MeterRegistry meterRegistry) {
         this.roomRepository = roomRepository;
         this.bookingRepository = bookingRepository;
         this.clientRepository = clientRepository;
+        this.eventPublisher = eventPublisher;
+        this.searches = new SingleFlight<>("rooms.filter", meterRegistry);
     }
     @Autowired
     private RoomAvailabilityService roomAvailabilityService;
+    @Autowired
+    private RoomCalendarService roomCalendarService;
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+    @Autowired
+    private RoomCatalogCache roomCatalogCache;
+    @Autowired
+    private AvailabilityResultCache availabilityResultCache;
+
+    @Value("${app.rooms.filter.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.rooms.filter.max-page-size:500}")
+    private int maxPageSize;
 
 
 
@@ -38,13 +73,52 @@ public class RoomService {
         return roomAvailabilityService.findAvailableRooms(startDate, endDate);
     }
     // Get all rooms
-    public List<RoomEntity> getAllRooms(){
-        return roomRepository.findAll();
+    // The cached catalog, reloaded if it doesn't match the version just read from the database
+    // (e.g. another node's change notification was missed), so a validator built from that version
+    // never vouches for an older body
+    public List<RoomSummary> getAllRooms(RoomCatalogVersion current) {
+        List<RoomSummary> rooms = roomCatalogCache.getAll();
+        if (current != null && !matches(rooms, current)) {
+            roomCatalogCache.evictAll();
+            rooms = roomCatalogCache.getAll();
+        }
+        return rooms;
+    }
+
+
+    public RoomCatalogVersion getCatalogVersion() {
+        return roomRepository.findCatalogVersion();
     }
 
+    public Optional<LocalDateTime> getRoomLastModified(Long roomId) {
+        return roomRepository.findUpdatedAtById(roomId);
+    }
+
+    // As getAllRooms: a cached room that doesn't match lastModified is dropped and read again.
+    // No lastModified means the database has no such room, so the cache isn't trusted either.
+    public RoomSummary getRoomByid(Long ID, LocalDateTime lastModified){
+        Optional<RoomSummary> room = roomCatalogCache.get(ID);
+        if (room.isPresent() && !room.get().updatedAt().equals(lastModified)) {
+            roomCatalogCache.evict(ID);
+            room = roomCatalogCache.get(ID);
+        }
+        return room.orElseThrow(() -> new EntityNotFoundException("Room not found with ID: " + ID));
+    }
+
+    // Same definition as RoomRepository.findCatalogVersion: room count and latest updatedAt
+    public static boolean matches(List<RoomSummary> rooms, RoomCatalogVersion version) {
+        return rooms.size() == version.getRoomCount()
+                && Objects.equals(lastUpdated(rooms), version.getLastUpdated());
+    }
 
-    public RoomEntity getRoomByid(Long ID){
-        return roomRepository.getRoomByid(ID);
+    public static LocalDateTime lastUpdated(List<RoomSummary> rooms) {
+        LocalDateTime latest = null;
+        for (RoomSummary room : rooms) {
+            if (room.updatedAt() != null && (latest == null || room.updatedAt().isAfter(latest))) {
+                latest = room.updatedAt();
+            }
+        }
+        return latest;
     }
 
     // Create a room
@@ -55,81 +129,139 @@ public class RoomService {
         }
 
         // Save and return the room
-        return roomRepository.save(roomEntity);
+        RoomEntity savedRoom = roomRepository.save(roomEntity);
+        eventPublisher.publishEvent(RoomChangedEvent.created(savedRoom));
+        return savedRoom;
     }
 
     // Remove a room
     public void removeRoom(Long roomId) {
         // Check if the room exists before attempting to delete
-        roomRepository.findById(roomId).ifPresentOrElse(
-                room -> roomRepository.deleteById(roomId),
+        roomRepository.findWithBookingsById(roomId).ifPresentOrElse(
+                room -> {
+                    roomRepository.delete(room);
+                    eventPublisher.publishEvent(RoomChangedEvent.deleted(roomId));
+                },
                 () -> {
                     throw new EntityNotFoundException("Room not found with ID: " + roomId);
                 }
         );
     }
-    public List<RoomDTO> filterRooms(
+    public RoomPage filterRooms(
             LocalDate startDate,
             LocalDate endDate,
             RoomType roomType,
             BigDecimal minPrice,
             BigDecimal maxPrice,
-            String sortBy
+            String sortBy,
+            String cursor,
+            Integer size
     ) {
         // If no dates provided, use today and tomorrow
         LocalDate effectiveStartDate = startDate != null ? startDate : LocalDate.now();
         LocalDate effectiveEndDate = endDate != null ? endDate : effectiveStartDate.plusDays(1);
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxPageSize);
+        }
 
-        // Get available rooms
-        List<RoomEntity> availableRooms = roomRepository.findAllAvailableRooms(
-                effectiveStartDate,
-                effectiveEndDate
-        );
-
-        // Apply additional filters
-        Stream<RoomEntity> roomStream = availableRooms.stream();
+        String query = "filter|" + roomType + "|" + minPrice + "|" + maxPrice + "|" + sortBy + "|" + cursor + "|" + pageSize;
+        // On a miss, identical searches arriving together share one query
+        return availabilityResultCache.get(effectiveStartDate, effectiveEndDate, query, () -> searches.execute(
+                effectiveStartDate + "|" + effectiveEndDate + "|" + query,
+                () -> searchRooms(effectiveStartDate, effectiveEndDate, roomType, minPrice, maxPrice, sortBy, cursor, pageSize)));
+    }
 
+    private RoomPage searchRooms(
+            LocalDate effectiveStartDate,
+            LocalDate effectiveEndDate,
+            RoomType roomType,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            String sortBy,
+            String cursor,
+            int pageSize
+    ) {
+        // Availability, type and price range are all applied in SQL
+        List<Specification<RoomEntity>> filters = new ArrayList<>();
+        filters.add(RoomSpecifications.notUnderMaintenance());
+        filters.add(RoomSpecifications.availableBetween(effectiveStartDate, effectiveEndDate));
         if (roomType != null) {
-            roomStream = roomStream.filter(room -> room.getRoomType() == roomType);
+            filters.add(RoomSpecifications.hasType(roomType));
         }
-
         if (minPrice != null) {
-            roomStream = roomStream.filter(room -> room.getPricePerNight().compareTo(minPrice) >= 0);
+            filters.add(RoomSpecifications.priceAtLeast(minPrice));
         }
-
         if (maxPrice != null) {
-            roomStream = roomStream.filter(room -> room.getPricePerNight().compareTo(maxPrice) <= 0);
+            filters.add(RoomSpecifications.priceAtMost(maxPrice));
         }
 
-        // Apply sorting
-        if ("PRICE_DESC".equals(sortBy)) {
-            roomStream = roomStream.sorted((r1, r2) -> r2.getPricePerNight().compareTo(r1.getPricePerNight()));
-        } else {
-            roomStream = roomStream.sorted((r1, r2) -> r1.getPricePerNight().compareTo(r2.getPricePerNight()));
+        // Sorted by price with id as tie-breaker so the keyset is unique
+        Sort.Direction direction = "PRICE_DESC".equals(sortBy) ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        PriceCursor after = cursor != null && !cursor.isBlank() ? PriceCursor.decode(cursor) : null;
+
+        // one row more than asked for tells us whether there is a next page
+        List<RoomSummary> rooms = roomRepository.searchSummaries(Specification.allOf(filters), direction,
+                after != null ? after.price() : null, after != null ? after.id() : null, pageSize + 1);
+        boolean hasNext = rooms.size() > pageSize;
+        if (hasNext) {
+            rooms = rooms.subList(0, pageSize);
         }
 
-        return roomStream
-                .map(room -> {
-                    RoomDTO dto = RoomDTO.fromEntity(room);
+        List<RoomDTO> result = new ArrayList<>(rooms.size());
+        List<Long> needNextDates = new ArrayList<>();
+        for (RoomSummary room : rooms) {
+            RoomDTO dto = RoomDTO.fromSummary(room);
 
-                    // Check if room is available for the dates
-                    boolean isAvailable = roomAvailabilityService.isRoomAvailable(
-                            room.getId(),
-                            effectiveStartDate,
-                            effectiveEndDate
-                    );
+            // The query already excluded booked rooms; only a booking committed since then
+            // (visible in the occupancy index) can make one unavailable.
+            RoomOccupancyIndex.Availability availability =
+                    occupancyIndex.check(room.id(), effectiveStartDate, effectiveEndDate);
+            boolean isAvailable = availability == null || availability.isAvailable();
 
-                    dto.setAvailable(isAvailable);
+            dto.setAvailable(isAvailable);
+            if (!isAvailable && !room.underMaintenance()) {
+                needNextDates.add(room.id());
+            }
+            result.add(dto);
+        }
 
-                    // If room is not available, get next available dates
-                    if (!isAvailable && !room.isUnderMaintenance()) {
-                        List<LocalDate> nextAvailableDates = roomAvailabilityService.getNextAvailableDates(room.getId());
-                        dto.setNextAvailableDates(nextAvailableDates);
-                    }
+        // If a room is not available, get its next available dates - one calendar pass for all of them
+        if (!needNextDates.isEmpty()) {
+            Map<Long, List<LocalDate>> nextDates = roomCalendarService.findNextAvailableDates(needNextDates);
+            result.stream()
+                    .filter(dto -> nextDates.containsKey(dto.getId()))
+                    .forEach(dto -> dto.setNextAvailableDates(nextDates.get(dto.getId())));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            RoomSummary last = rooms.get(rooms.size() - 1);
+            nextCursor = new PriceCursor(last.pricePerNight(), last.id()).encode();
+        }
+        return new RoomPage(List.copyOf(result), nextCursor);
+    }
+
+    // Keyset position for the filter: (pricePerNight, id) of the last row returned, base64url-encoded
+    record PriceCursor(BigDecimal price, Long id) {
 
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (price.toPlainString() + ":" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PriceCursor decode(String cursor) {
+            try {
+                String[] keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", -1);
+                if (keys.length != 2) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new PriceCursor(new BigDecimal(keys[0]), Long.valueOf(keys[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
     }
     // Update a room
     public RoomEntity updateRoom(Long roomId, RoomEntity roomDetails) {
@@ -145,7 +277,9 @@ public class RoomService {
         existingRoom.setPricePerNight(roomDetails.getPricePerNight());
 
         // Save and return the updated room entity
-        return roomRepository.save(existingRoom);
+        RoomEntity updatedRoom = roomRepository.save(existingRoom);
+        eventPublisher.publishEvent(RoomChangedEvent.updated(updatedRoom));
+        return updatedRoom;
     }
 }
 
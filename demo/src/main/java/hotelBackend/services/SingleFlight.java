@@ -0,0 +1,76 @@
+package hotelBackend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical calls into one. The first caller for a key runs the call; anyone
+ * asking for the same key while it runs waits for that result (or exception) instead of running it
+ * again. Nothing is kept once the call finishes - caching is a separate concern.
+ *
+ * <p>Metrics: {@code singleflight.calls{name, result=executed|collapsed}} and the
+ * {@code singleflight.inflight{name}} gauge. During a burst of identical requests the executed
+ * count tracks distinct queries while collapsed absorbs the rest.</p>
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter collapsed;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.collapsed = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.inflight", inFlight, ConcurrentHashMap::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            collapsed.increment();
+            return await(leader);
+        }
+
+        executed.increment();
+        try {
+            V result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Followers see the leader's own exception, not a CompletionException wrapper
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package hotelBackend.services;
+
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The availability check made before inserting a booking or payment hold, and the explanation
+ * given when it fails. The occupancy index is per node and can lag a booking removed elsewhere,
+ * so a "free" answer lets the insert go ahead (the bookings_no_overlap constraint has the final
+ * say) while a "taken" one is confirmed against the database before the request is refused.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StayAvailability {
+
+    private final RoomOccupancyIndex occupancyIndex;
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+
+    public boolean isFreeForWrite(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomOccupancyIndex.Availability availability = occupancyIndex.check(roomId, startDate, endDate);
+        if (availability != null && availability.getConflict() == null) {
+            return true;
+        }
+        return !bookingRepository.existsOverlapping(roomId, startDate, endDate);
+    }
+
+    // Only reached once the database has confirmed the refusal, so the details come from there too.
+    // The caller picks the exception type its API reports.
+    public <E extends RuntimeException> E refusal(Long roomId, LocalDate startDate, LocalDate endDate,
+                                                  Function<String, E> exception) {
+        RoomEntity room = roomRepository.findById(roomId)
+                .orElseThrow(() -> exception.apply("Room not found"));
+
+        if (room.isUnderMaintenance()) {
+            return exception.apply("Room is under maintenance");
+        }
+
+        List<BookingEntity> conflicts = bookingRepository.findConflictingBookings(roomId, startDate, endDate);
+        if (!conflicts.isEmpty()) {
+            BookingEntity conflict = conflicts.get(0);
+            log.warn("Room {} has conflicting booking: {} to {}",
+                    roomId, conflict.getBookingStartDate(), conflict.getBookingEndDate());
+            return exception.apply(String.format("Room is already booked from %s to %s",
+                    conflict.getBookingStartDate(), conflict.getBookingEndDate()));
+        }
+
+        return exception.apply("Room is not available for the selected dates");
+    }
+}
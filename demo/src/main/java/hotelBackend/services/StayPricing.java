@@ -0,0 +1,20 @@
+package hotelBackend.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// Price of a stay: one nightly rate per night in [startDate, endDate)
+public final class StayPricing {
+
+    private StayPricing() {
+    }
+
+    public static long nights(LocalDate startDate, LocalDate endDate) {
+        return ChronoUnit.DAYS.between(startDate, endDate);
+    }
+
+    public static BigDecimal total(BigDecimal pricePerNight, LocalDate startDate, LocalDate endDate) {
+        return pricePerNight.multiply(BigDecimal.valueOf(nights(startDate, endDate)));
+    }
+}
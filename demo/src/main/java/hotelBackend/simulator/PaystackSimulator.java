@@ -0,0 +1,301 @@
+package hotelBackend.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the parts of the Paystack API this application uses:
+ * {@code POST /transaction/initialize} and {@code GET /transaction/verify/{reference}}.
+ *
+ * <p>Every response is delayed by a log-normal latency fitted to the configured median and p99.
+ * A share of requests can fail with HTTP 500 ({@code errorRate}) or hang for
+ * {@code timeoutDelay} before answering ({@code timeoutRate}), which is what a gateway brownout
+ * looks like from our side. When a webhook URL is set, each initialized transaction is "paid"
+ * after {@code webhookDelay} and a signed {@code charge.success} event is posted to it, the same
+ * way Paystack does.</p>
+ *
+ * <p>Used by the tests and by the {@code paystack-sim} profile for offline load testing.</p>
+ */
+@Slf4j
+public class PaystackSimulator {
+
+    private static final double Z_99 = 2.326;
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ObjectNode> transactions = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedTimeouts = new AtomicLong();
+    private final AtomicLong webhooksSent = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ScheduledExecutorService webhookScheduler;
+    private HttpClient webhookClient;
+
+    public PaystackSimulator(Settings settings, ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", settings.getPort()), 0);
+        handlers = Executors.newVirtualThreadPerTaskExecutor();
+        webhookScheduler = Executors.newSingleThreadScheduledExecutor();
+        webhookClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        server.setExecutor(handlers);
+        server.createContext("/transaction/initialize", this::handleInitialize);
+        server.createContext("/transaction/verify/", this::handleVerify);
+        server.start();
+        log.info("Paystack simulator listening on {}", getBaseUrl());
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            handlers.shutdownNow();
+            webhookScheduler.shutdownNow();
+            server = null;
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public long getInjectedTimeouts() {
+        return injectedTimeouts.get();
+    }
+
+    public long getWebhooksSent() {
+        return webhooksSent.get();
+    }
+
+    private void handleInitialize(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, error("Method not allowed"));
+                return;
+            }
+            if (!authorized(exchange) || !simulateGateway(exchange)) {
+                return;
+            }
+
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readTree(body);
+            }
+            String reference = request.path("reference").asText();
+            if (reference.isEmpty() || !request.hasNonNull("amount") || !request.hasNonNull("email")) {
+                respond(exchange, 400, error("reference, amount and email are required"));
+                return;
+            }
+
+            ObjectNode transaction = objectMapper.createObjectNode();
+            transaction.put("reference", reference);
+            transaction.put("amount", request.get("amount").asLong());
+            transaction.put("currency", request.path("currency").asText("NGN"));
+            transaction.put("status", "success");
+            transaction.set("metadata", request.path("metadata"));
+            transaction.set("customer", objectMapper.createObjectNode().put("email", request.get("email").asText()));
+            transactions.put(reference, transaction);
+
+            ObjectNode data = objectMapper.createObjectNode();
+            data.put("authorization_url", getBaseUrl() + "/checkout/" + reference);
+            data.put("access_code", "sim_" + Long.toHexString(ThreadLocalRandom.current().nextLong()));
+            data.put("reference", reference);
+            respond(exchange, 200, envelope("Authorization URL created", data));
+
+            if (settings.getWebhookUrl() != null && !settings.getWebhookUrl().isBlank()) {
+                webhookScheduler.schedule(() -> sendWebhook(transaction),
+                        settings.getWebhookDelay().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, error("Method not allowed"));
+                return;
+            }
+            if (!authorized(exchange) || !simulateGateway(exchange)) {
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String reference = path.substring(path.lastIndexOf('/') + 1);
+            ObjectNode transaction = transactions.get(reference);
+            if (transaction == null) {
+                respond(exchange, 404, error("Transaction reference not found"));
+                return;
+            }
+            respond(exchange, 200, envelope("Verification successful", transaction));
+        }
+    }
+
+    private boolean authorized(HttpExchange exchange) throws IOException {
+        String expected = "Bearer " + settings.getSecretKey();
+        if (!expected.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            respond(exchange, 401, error("Invalid key"));
+            return false;
+        }
+        return true;
+    }
+
+    // Latency and fault injection; false when the request has already been answered with a fault
+    private boolean simulateGateway(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < settings.getTimeoutRate()) {
+            injectedTimeouts.incrementAndGet();
+            sleep(settings.getTimeoutDelay().toMillis());
+            respond(exchange, 504, error("Gateway timeout"));
+            return false;
+        }
+        sleep(sampleLatencyMs(random));
+        if (random.nextDouble() < settings.getErrorRate()) {
+            injectedErrors.incrementAndGet();
+            respond(exchange, 500, error("Simulated gateway error"));
+            return false;
+        }
+        return true;
+    }
+
+    private long sampleLatencyMs(ThreadLocalRandom random) {
+        long median = settings.getLatencyMedian().toMillis();
+        long p99 = Math.max(settings.getLatencyP99().toMillis(), median);
+        if (median <= 0) {
+            return 0;
+        }
+        double mu = Math.log(median);
+        double sigma = (Math.log(p99) - mu) / Z_99;
+        return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+
+    private void sendWebhook(ObjectNode transaction) {
+        try {
+            ObjectNode event = objectMapper.createObjectNode();
+            event.put("event", "charge.success");
+            event.set("data", transaction);
+            byte[] body = objectMapper.writeValueAsBytes(event);
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(settings.getWebhookUrl()))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .header("x-paystack-signature", sign(body))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            HttpResponse<Void> response = webhookClient.send(request, HttpResponse.BodyHandlers.discarding());
+            webhooksSent.incrementAndGet();
+            if (response.statusCode() != 200) {
+                log.warn("Webhook for {} answered HTTP {}", transaction.get("reference").asText(), response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to deliver simulated webhook: {}", e.toString());
+        }
+    }
+
+    private String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(settings.getSecretKey().getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private ObjectNode envelope(String message, JsonNode data) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("status", true);
+        response.put("message", message);
+        response.set("data", data);
+        return response;
+    }
+
+    private ObjectNode error(String message) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("status", false);
+        response.put("message", message);
+        return response;
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Settings {
+        // 0 picks a free port
+        @Builder.Default
+        private final int port = 0;
+        @Builder.Default
+        private final String secretKey = "sk_test_simulator";
+        @Builder.Default
+        private final Duration latencyMedian = Duration.ofMillis(150);
+        @Builder.Default
+        private final Duration latencyP99 = Duration.ofMillis(800);
+        @Builder.Default
+        private final double errorRate = 0.0;
+        @Builder.Default
+        private final double timeoutRate = 0.0;
+        @Builder.Default
+        private final Duration timeoutDelay = Duration.ofSeconds(30);
+        private final String webhookUrl;
+        @Builder.Default
+        private final Duration webhookDelay = Duration.ofSeconds(2);
+    }
+}
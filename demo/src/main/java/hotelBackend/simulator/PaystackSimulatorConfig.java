@@ -0,0 +1,41 @@
+package hotelBackend.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+// Runs the simulator inside the application; see application-paystack-sim.properties
+@Configuration
+@Profile("paystack-sim")
+public class PaystackSimulatorConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public PaystackSimulator paystackSimulator(
+            @Value("${paystack.sim.port}") int port,
+            @Value("${paystack.secretKey}") String secretKey,
+            @Value("${paystack.sim.latency-median-ms:150}") long latencyMedianMs,
+            @Value("${paystack.sim.latency-p99-ms:800}") long latencyP99Ms,
+            @Value("${paystack.sim.error-rate:0}") double errorRate,
+            @Value("${paystack.sim.timeout-rate:0}") double timeoutRate,
+            @Value("${paystack.sim.timeout-delay-ms:30000}") long timeoutDelayMs,
+            @Value("${paystack.sim.webhook-url:}") String webhookUrl,
+            @Value("${paystack.sim.webhook-delay-ms:2000}") long webhookDelayMs,
+            ObjectMapper objectMapper) {
+        PaystackSimulator.Settings settings = PaystackSimulator.Settings.builder()
+                .port(port)
+                .secretKey(secretKey)
+                .latencyMedian(Duration.ofMillis(latencyMedianMs))
+                .latencyP99(Duration.ofMillis(latencyP99Ms))
+                .errorRate(errorRate)
+                .timeoutRate(timeoutRate)
+                .timeoutDelay(Duration.ofMillis(timeoutDelayMs))
+                .webhookUrl(webhookUrl)
+                .webhookDelay(Duration.ofMillis(webhookDelayMs))
+                .build();
+        return new PaystackSimulator(settings, objectMapper);
+    }
+}
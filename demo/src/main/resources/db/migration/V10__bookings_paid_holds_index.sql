@@ -0,0 +1,7 @@
+-- Webhooks now mark a hold PAID before they are acknowledged, and the hold sweeper confirms PAID holds
+-- whose queued confirmation was lost. Widen the partial index so that sweep stays an index scan.
+DROP INDEX IF EXISTS ix_bookings_open_holds;
+
+CREATE INDEX IF NOT EXISTS ix_bookings_open_holds
+    ON bookings (created_at)
+    WHERE payment_status IN ('INITIATING', 'PENDING', 'PAID');
@@ -0,0 +1,9 @@
+-- Operators (admin accounts). Passwords are stored as BCrypt hashes.
+CREATE TABLE IF NOT EXISTS users (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_username ON users (username);
@@ -0,0 +1,57 @@
+-- Double bookings are prevented by the database: no two bookings (including unpaid payment holds)
+-- for the same room may share a night. Stays are half-open: [booking_start_date, booking_end_date).
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- On a fresh database Flyway runs before Hibernate creates these, so create them here first
+CREATE TABLE IF NOT EXISTS clients (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGSERIAL PRIMARY KEY,
+    client_id BIGINT NOT NULL REFERENCES clients (id),
+    room_id BIGINT NOT NULL REFERENCES rooms (id),
+    booking_start_date DATE NOT NULL,
+    booking_end_date DATE NOT NULL,
+    amount_paid DECIMAL(10,2) NOT NULL,
+    payment_reference VARCHAR(255) UNIQUE,
+    payment_status VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Bookings that end on or before their start date predate the API's date check and would make the
+-- constraint below fail with a bare check violation. Stop with the offending ids instead; fix their
+-- dates (or delete them) by hand, since they may carry a payment, then rerun the migration.
+DO $$
+DECLARE
+    invalid_count BIGINT;
+    invalid_ids TEXT;
+BEGIN
+    SELECT count(*), string_agg(id::TEXT, ', ' ORDER BY id)
+    INTO invalid_count, invalid_ids
+    FROM (SELECT id FROM bookings WHERE booking_end_date <= booking_start_date ORDER BY id LIMIT 50) sample;
+
+    IF invalid_count > 0 THEN
+        SELECT count(*) INTO invalid_count FROM bookings WHERE booking_end_date <= booking_start_date;
+        RAISE EXCEPTION '% booking(s) end on or before their start date (ids: %)', invalid_count, invalid_ids
+            USING HINT = 'Correct booking_end_date or delete these bookings, then rerun the migration.';
+    END IF;
+END $$;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_valid_stay CHECK (booking_end_date > booking_start_date);
+
+ALTER TABLE bookings
+    ADD COLUMN stay DATERANGE
+        GENERATED ALWAYS AS (daterange(booking_start_date, booking_end_date, '[)')) STORED;
+
+-- Fails if overlapping bookings already exist; resolve those by hand before migrating
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_no_overlap EXCLUDE USING gist (room_id WITH =, stay WITH &&);
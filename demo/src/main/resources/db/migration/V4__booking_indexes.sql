@@ -0,0 +1,21 @@
+-- Indexes for every query on bookings. Overlap predicates are written half-open
+-- (start < :end AND end > :start) so each can be answered from a range scan.
+
+-- Conflict checks and availability for one room: room_id = ? AND booking_end_date > ? AND booking_start_date < ?
+CREATE INDEX IF NOT EXISTS ix_bookings_room_stay
+    ON bookings (room_id, booking_end_date, booking_start_date);
+
+-- Upcoming stays across all rooms (occupancy index load, NOT EXISTS availability over every room)
+CREATE INDEX IF NOT EXISTS ix_bookings_end_date
+    ON bookings (booking_end_date) INCLUDE (booking_start_date, room_id);
+
+-- A client's bookings
+CREATE INDEX IF NOT EXISTS ix_bookings_client
+    ON bookings (client_id);
+
+-- Unpaid holds swept by age; only a handful of rows are ever in these states
+CREATE INDEX IF NOT EXISTS ix_bookings_open_holds
+    ON bookings (created_at)
+    WHERE payment_status IN ('INITIATING', 'PENDING');
+
+ANALYZE bookings;
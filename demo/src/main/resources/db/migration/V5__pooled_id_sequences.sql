@@ -0,0 +1,25 @@
+-- Ids come from sequences that hand out blocks of 50 (Hibernate's pooled-lo optimizer), so inserts
+-- no longer need a round trip each and can be batched. Every id column keeps its existing
+-- sequence - BIGSERIAL or identity, both named <table>_id_seq - and every existing id stays as it is.
+-- Each nextval now reserves [value, value + 49]; the sequence restarts just above the current
+-- max(id) so no reserved block overlaps an existing row. Plain SQL inserts that rely on the column
+-- default still work, they just take a whole block.
+
+DO $$
+DECLARE
+    t TEXT;
+    seq TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['rooms', 'users', 'clients', 'bookings'] LOOP
+        seq := pg_get_serial_sequence(t, 'id');
+
+        IF EXISTS (SELECT 1 FROM pg_attribute
+                   WHERE attrelid = t::regclass AND attname = 'id' AND attidentity <> '') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', t);
+        ELSE
+            EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', seq);
+        END IF;
+
+        EXECUTE format('SELECT setval(%L, (SELECT COALESCE(max(id), 0) + 1 FROM %I), false)', seq, t);
+    END LOOP;
+END $$;
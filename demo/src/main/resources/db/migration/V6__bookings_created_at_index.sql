@@ -0,0 +1,5 @@
+-- Keyset pagination of GET /api/bookings, newest first: ORDER BY created_at DESC, id DESC
+-- with (created_at, id) < (:createdAt, :id) starts each page with an index seek, however deep.
+CREATE INDEX IF NOT EXISTS ix_bookings_created ON bookings (created_at DESC, id DESC);
+
+ANALYZE bookings;
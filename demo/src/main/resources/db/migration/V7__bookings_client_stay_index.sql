@@ -0,0 +1,9 @@
+-- Client booking timelines: client_id = ? AND booking_end_date > :from AND booking_start_date < :to.
+-- Same shape as ix_bookings_room_stay, so a client with years of history costs no more than a new one.
+-- It also covers plain client_id lookups, which makes ix_bookings_client redundant.
+CREATE INDEX IF NOT EXISTS ix_bookings_client_stay
+    ON bookings (client_id, booking_end_date, booking_start_date);
+
+DROP INDEX IF EXISTS ix_bookings_client;
+
+ANALYZE bookings;
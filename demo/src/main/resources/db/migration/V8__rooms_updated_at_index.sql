@@ -0,0 +1,3 @@
+-- Catalog version for conditional GETs on /api/rooms: max(updated_at) is read from the end of this
+-- index instead of scanning rooms on every poll.
+CREATE INDEX IF NOT EXISTS ix_rooms_updated_at ON rooms (updated_at);
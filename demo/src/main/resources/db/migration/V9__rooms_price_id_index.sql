@@ -0,0 +1,5 @@
+-- /api/rooms/filter pages are ordered and sought on (price_per_night, id). With this index each page
+-- is read in order from the cursor (backwards for PRICE_DESC) instead of sorting every matching room.
+CREATE INDEX IF NOT EXISTS ix_rooms_price_id ON rooms (price_per_night, id);
+
+ANALYZE rooms;
@@ -0,0 +1,82 @@
+package hotelBackend.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The verified-token cache must only ever skip work, never accept a token the parser would refuse
+class JwtTokenProviderTest {
+
+	@Test
+	void aCachedTokenDoesNotVouchForATamperedCopy() {
+		JwtTokenProvider provider = provider(60_000);
+		String token = provider.generateToken(login("guest", "ROLE_USER"));
+		assertEquals("guest", provider.getUsernameFromJWT(token));
+		assertEquals(1, cache(provider).estimatedSize());
+
+		String[] parts = token.split("\\.");
+		String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+		String escalated = parts[0] + "." + encode(payload.replace("\"guest\"", "\"admin\"")
+				.replace("ROLE_USER", "ROLE_ADMIN")) + "." + parts[2];
+		char[] signature = parts[2].toCharArray();
+		signature[10] = signature[10] == 'A' ? 'B' : 'A';
+		String badSignature = parts[0] + "." + parts[1] + "." + new String(signature);
+
+		assertTrue(provider.parseVerifiedClaims(escalated).isEmpty());
+		assertTrue(provider.parseVerifiedClaims(badSignature).isEmpty());
+		assertFalse(provider.validateToken(escalated));
+		// the genuine token is still served, and nothing else got cached
+		assertEquals("guest", provider.getUsernameFromJWT(token));
+		assertEquals(1, cache(provider).estimatedSize());
+	}
+
+	@Test
+	void aCachedTokenIsDroppedAtItsExpiry() throws InterruptedException {
+		JwtTokenProvider provider = provider(1_000);
+		String token = provider.generateToken(login("guest", "ROLE_USER"));
+		Claims claims = provider.parseVerifiedClaims(token).orElseThrow();
+		assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), provider.getAuthorities(claims));
+		assertEquals(1, cache(provider).estimatedSize());
+
+		// exp is in whole seconds, so wait for the claim itself rather than the configured lifetime
+		long sleep = claims.getExpiration().getTime() - System.currentTimeMillis() + 200;
+		Thread.sleep(Math.max(sleep, 0));
+
+		assertTrue(provider.parseVerifiedClaims(token).isEmpty());
+		// iteration skips expired entries; the size only drops when the timer wheel next advances
+		assertEquals(List.of(), List.copyOf(cache(provider).asMap().keySet()));
+	}
+
+	private static JwtTokenProvider provider(int expirationMs) {
+		JwtTokenProvider provider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(provider, "jwtSecret", "a-test-secret-that-is-longer-than-32-bytes");
+		ReflectionTestUtils.setField(provider, "jwtExpirationInMs", expirationMs);
+		ReflectionTestUtils.setField(provider, "verifiedTokenCacheSize", 100L);
+		provider.init();
+		return provider;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Cache<String, Claims> cache(JwtTokenProvider provider) {
+		return (Cache<String, Claims>) ReflectionTestUtils.getField(provider, "verifiedTokens");
+	}
+
+	private static UsernamePasswordAuthenticationToken login(String username, String role) {
+		User user = new User(username, "password", List.of(new SimpleGrantedAuthority(role)));
+		return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+	}
+
+	private static String encode(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,154 @@
+package hotelBackend.Security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Route matching, per-client buckets and the in-flight cap, through the servlet filter
+class RateLimitFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void aClientOverItsBurstGets429WithRetryAfter() throws Exception {
+		RateLimitFilter filter = filter(RateLimitProperties.Route.of("/api/rooms/**", 0.2, 2, 0, Duration.ZERO));
+
+		assertEquals(200, call(filter, get("/api/rooms/filter", "10.0.0.1")).getStatus());
+		assertEquals(200, call(filter, get("/api/rooms/filter", "10.0.0.1")).getStatus());
+
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(get("/api/rooms/filter", "10.0.0.1"), rejected, chain);
+		assertEquals(429, rejected.getStatus());
+		// one request per 5 s, rounded up to whole seconds
+		assertEquals("5", rejected.getHeader("Retry-After"));
+		assertEquals("{\"error\":\"Too many requests, slow down\"}", rejected.getContentAsString());
+		assertNull(chain.getRequest());
+		assertEquals(1.0, meterRegistry.get("ratelimit.rejected").tag("reason", "rate").counter().count());
+
+		// other clients have their own bucket
+		assertEquals(200, call(filter, get("/api/rooms/filter", "10.0.0.2")).getStatus());
+	}
+
+	@Test
+	void aKnownApiKeyIsLimitedSeparatelyFromItsAddress() throws Exception {
+		RateLimitProperties properties = properties(RateLimitProperties.Route.of("/api/rooms/**", 0.2, 1, 0, Duration.ZERO));
+		properties.setApiKeys(List.of("partner"));
+		RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+		assertEquals(200, call(filter, get("/api/rooms", "10.0.0.1")).getStatus());
+		assertEquals(429, call(filter, get("/api/rooms", "10.0.0.1")).getStatus());
+
+		MockHttpServletRequest withKey = get("/api/rooms", "10.0.0.1");
+		withKey.addHeader("X-API-Key", "partner");
+		assertEquals(200, call(filter, withKey).getStatus());
+
+		MockHttpServletRequest unknownKey = get("/api/rooms", "10.0.0.1");
+		unknownKey.addHeader("X-API-Key", "made-up");
+		assertEquals(429, call(filter, unknownKey).getStatus());
+	}
+
+	@Test
+	void routesMatchInOrderAndByMethod() throws Exception {
+		RateLimitFilter filter = filter(
+				RateLimitProperties.Route.of("/api/payments/webhook", 0, 1, 0, Duration.ZERO),
+				RateLimitProperties.Route.of("/api/payments/**", 0.2, 1, 0, Duration.ZERO),
+				RateLimitProperties.Route.of("/api/rooms/**", 0.2, 1, 0, Duration.ZERO, "GET"));
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, call(filter, request("POST", "/api/payments/webhook", "10.0.0.1")).getStatus());
+			// admin writes to rooms aren't limited by the read route
+			assertEquals(200, call(filter, request("PUT", "/api/rooms/7", "10.0.0.1")).getStatus());
+			assertEquals(200, call(filter, request("OPTIONS", "/api/rooms/7", "10.0.0.1")).getStatus());
+			assertEquals(200, call(filter, get("/api/clients", "10.0.0.1")).getStatus());
+		}
+		assertEquals(200, call(filter, request("POST", "/api/payments/initiate", "10.0.0.1")).getStatus());
+		assertEquals(429, call(filter, request("POST", "/api/payments/initiate", "10.0.0.1")).getStatus());
+		assertEquals(200, call(filter, get("/api/rooms/7", "10.0.0.1")).getStatus());
+		assertEquals(429, call(filter, get("/api/rooms/7", "10.0.0.1")).getStatus());
+	}
+
+	@Test
+	void requestsOverTheConcurrencyCapAreTurnedAway() throws Exception {
+		RateLimitFilter filter = filter(RateLimitProperties.Route.of("/api/rooms/**", 0, 1, 1, Duration.ofMillis(20)));
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> {
+			try {
+				filter.doFilter(get("/api/rooms", "10.0.0.1"), new MockHttpServletResponse(), (request, response) -> {
+					entered.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+		MockHttpServletResponse busy = call(filter, get("/api/rooms", "10.0.0.2"));
+		assertEquals(429, busy.getStatus());
+		assertEquals("1", busy.getHeader("Retry-After"));
+		assertEquals(1.0, meterRegistry.get("ratelimit.rejected").tag("reason", "concurrency").counter().count());
+
+		release.countDown();
+		slow.get(5, TimeUnit.SECONDS);
+		assertEquals(200, call(filter, get("/api/rooms", "10.0.0.2")).getStatus());
+	}
+
+	@Test
+	void nothingIsLimitedWhenDisabled() throws Exception {
+		RateLimitProperties properties = properties(RateLimitProperties.Route.of("/api/rooms/**", 0.2, 1, 0, Duration.ZERO));
+		properties.setEnabled(false);
+		RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(200, call(filter, get("/api/rooms", "10.0.0.1")).getStatus());
+		}
+	}
+
+	private RateLimitFilter filter(RateLimitProperties.Route... routes) {
+		return new RateLimitFilter(properties(routes), meterRegistry);
+	}
+
+	private static RateLimitProperties properties(RateLimitProperties.Route... routes) {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.setRoutes(List.of(routes));
+		return properties;
+	}
+
+	private static MockHttpServletResponse call(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, response, chain);
+		if (response.getStatus() == 200) {
+			assertNotNull(chain.getRequest(), "allowed request must reach the chain");
+		}
+		return response;
+	}
+
+	private static MockHttpServletRequest get(String path, String remoteAddr) {
+		return request("GET", path, remoteAddr);
+	}
+
+	private static MockHttpServletRequest request(String method, String path, String remoteAddr) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		request.setRemoteAddr(remoteAddr);
+		return request;
+	}
+}
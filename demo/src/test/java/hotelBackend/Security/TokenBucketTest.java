@@ -0,0 +1,92 @@
+package hotelBackend.Security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The single-timestamp bucket on a synthetic clock: 10 requests/s with a burst of 3
+class TokenBucketTest {
+
+	private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long TOLERANCE = INTERVAL * 2;
+	private static final long START = 1_000_000_000L;
+
+	@Test
+	void aFullBucketAdmitsTheBurstThenReportsTheWait() {
+		TokenBucket bucket = new TokenBucket(START);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(START, INTERVAL, TOLERANCE), "request " + i);
+		}
+		assertEquals(INTERVAL, bucket.tryAcquire(START, INTERVAL, TOLERANCE));
+		// a refused request doesn't use anything up
+		assertEquals(INTERVAL - ms(40), bucket.tryAcquire(START + ms(40), INTERVAL, TOLERANCE));
+	}
+
+	@Test
+	void tokensComeBackOnePerInterval() {
+		TokenBucket bucket = new TokenBucket(START);
+		for (int i = 0; i < 3; i++) {
+			bucket.tryAcquire(START, INTERVAL, TOLERANCE);
+		}
+
+		long now = START + INTERVAL;
+		assertEquals(0, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+		assertEquals(INTERVAL, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+
+		now += INTERVAL * 2;
+		assertEquals(0, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+		assertEquals(0, bucket.tryAcquire(now, INTERVAL, TOLERANCE));
+		assertTrue(bucket.tryAcquire(now, INTERVAL, TOLERANCE) > 0);
+	}
+
+	@Test
+	void idleTimeNeverBanksMoreThanTheBurst() {
+		TokenBucket bucket = new TokenBucket(START);
+		long later = START + TimeUnit.MINUTES.toNanos(10);
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(later, INTERVAL, TOLERANCE));
+		}
+		assertEquals(INTERVAL, bucket.tryAcquire(later, INTERVAL, TOLERANCE));
+	}
+
+	@Test
+	void concurrentCallersShareOneBurst() throws Exception {
+		TokenBucket bucket = new TokenBucket(START);
+		long tolerance = INTERVAL * 99;
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> admitted = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				admitted.add(executor.submit(() -> {
+					int count = 0;
+					for (int i = 0; i < 1000; i++) {
+						if (bucket.tryAcquire(START, INTERVAL, tolerance) == 0) {
+							count++;
+						}
+					}
+					return count;
+				}));
+			}
+			int total = 0;
+			for (Future<Integer> future : admitted) {
+				total += future.get(10, TimeUnit.SECONDS);
+			}
+			assertEquals(100, total);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static long ms(long millis) {
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+}
@@ -0,0 +1,302 @@
+package hotelBackend.repositories;
+
+import hotelBackend.entities.RoomEntity;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs EXPLAIN on the SQL behind every repository query that reads bookings, against a seeded
+// history of bookings, and fails if any plan falls back to a sequential scan of bookings. Also checks
+// that room search pages seek the (price_per_night, id) index instead of sorting.
+// Needs Docker; skipped without it.
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.jpa.hibernate.ddl-auto=update",
+		"spring.jpa.show-sql=false",
+		"app.availability.index.enabled=false",
+		"jwt.secret=query-plan-test-secret-query-plan-test",
+		"jwt.expiration=3600000",
+		"paystack.secretKey=sk_test_plan",
+		"paystack.baseUrl=http://localhost:9",
+		"app.payment.callback-url=http://localhost/callback",
+		"app.payment.success-url=http://localhost/success",
+		"app.payment.cancel-url=http://localhost/cancel",
+		"app.payment.currency=NGN",
+		"cors.allowed-origins=http://localhost",
+		"admin.username=admin",
+		"admin.password=admin-password"
+})
+class BookingQueryPlanTest {
+
+	private static final int ROOMS = 50;
+	private static final int CLIENTS = 3000;
+	private static final int BOOKINGS_PER_ROOM = 600;
+	private static final Pattern SEQ_SCAN_ON_BOOKINGS = Pattern.compile("Seq Scan on bookings\\b");
+	private static final Pattern SORT = Pattern.compile("\\bSort\\b");
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+	static final List<QueryInfo> captured = new CopyOnWriteArrayList<>();
+	static volatile boolean recording;
+	static DataSource rawDataSource;
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void resetCapture() {
+		captured.clear();
+	}
+
+	@Test
+	void bookingQueriesUseIndexes() throws SQLException {
+		seed();
+
+		LocalDate today = LocalDate.now();
+		LocalDate start = today.plusDays(1);
+		LocalDate end = today.plusDays(4);
+		Long roomId = jdbcTemplate.queryForObject("SELECT min(id) FROM rooms", Long.class);
+		Long clientId = jdbcTemplate.queryForObject("SELECT min(id) FROM clients", Long.class);
+		List<Long> someRooms = jdbcTemplate.queryForList("SELECT id FROM rooms ORDER BY id LIMIT 5", Long.class);
+
+		captured.clear();
+		recording = true;
+		try {
+			bookingRepository.findClientTimeline(clientId, today, today.plusDays(28), Limit.of(100));
+			bookingRepository.findRoomTimeline(roomId, today, today.plusDays(28), Limit.of(100));
+			bookingRepository.findConflictingBookings(roomId, start, end);
+			bookingRepository.findByPaymentReference("SEED-" + roomId + "-10");
+			bookingRepository.findByPaymentReferenceIn(List.of("SEED-" + roomId + "-10", "SEED-" + roomId + "-11"));
+			bookingRepository.existsOverlapping(roomId, start, end);
+			bookingRepository.findByPaymentStatusInAndCreatedAtBefore(
+					List.of("INITIATING", "PENDING"), LocalDateTime.now().minusMinutes(30));
+			bookingRepository.findByPaymentStatusInAndCreatedAtBefore(
+					List.of("PAID"), LocalDateTime.now().minusMinutes(1));
+			bookingRepository.findStaysEndingAfter(today);
+			bookingRepository.findStaysForRooms(someRooms, today, today.plusDays(30));
+			bookingRepository.findNewest(Limit.of(51));
+			bookingRepository.findNewestBefore(LocalDateTime.now().minusDays(1), Long.MAX_VALUE, Limit.of(51));
+
+			roomRepository.findAvailableRoom(roomId, start, end);
+			roomRepository.findAllAvailableRooms(start, end);
+			roomRepository.findWithBookingsById(roomId);
+			roomRepository.searchSummaries(
+					Specification.where(RoomSpecifications.notUnderMaintenance())
+							.and(RoomSpecifications.availableBetween(start, end)),
+					Sort.Direction.ASC, null, null, 20);
+			roomRepository.searchSummaries(
+					Specification.where(RoomSpecifications.notUnderMaintenance())
+							.and(RoomSpecifications.availableBetween(start, end)),
+					Sort.Direction.ASC, new BigDecimal("50000"), roomId, 20);
+		} finally {
+			recording = false;
+		}
+
+		List<String> failures = new ArrayList<>();
+		int explained = 0;
+		for (QueryInfo query : captured) {
+			if (!query.getQuery().toLowerCase().contains("bookings")) {
+				continue;
+			}
+			String plan = explain(query);
+			explained++;
+			if (SEQ_SCAN_ON_BOOKINGS.matcher(plan).find()) {
+				failures.add(query.getQuery() + "\n" + plan);
+			}
+		}
+
+		assertTrue(explained >= 17, "expected every booking query to be captured, got " + explained);
+		assertTrue(failures.isEmpty(), "Sequential scan on bookings:\n\n" + String.join("\n\n", failures));
+	}
+
+	// Only the index's ability to serve the order and the seek is checked, so the planner is kept off
+	// sequential scans rather than seeding enough rooms to make it prefer the index on its own
+	@Test
+	void roomSearchPagesSeekThePriceIndex() throws SQLException {
+		LocalDate start = LocalDate.now().plusDays(1);
+		LocalDate end = start.plusDays(3);
+		Specification<RoomEntity> filter = Specification.where(RoomSpecifications.notUnderMaintenance())
+				.and(RoomSpecifications.availableBetween(start, end));
+
+		captured.clear();
+		recording = true;
+		try {
+			roomRepository.searchSummaries(filter, Sort.Direction.ASC, new BigDecimal("50000"), 10L, 21);
+			roomRepository.searchSummaries(filter, Sort.Direction.DESC, new BigDecimal("50000"), 10L, 21);
+		} finally {
+			recording = false;
+		}
+
+		List<QueryInfo> searches = captured.stream()
+				.filter(query -> query.getQuery().toLowerCase().contains("price_per_night"))
+				.toList();
+		assertEquals(2, searches.size());
+		for (QueryInfo query : searches) {
+			String plan = explain(query, "SET enable_seqscan = off");
+			assertTrue(plan.contains("ix_rooms_price_id"), "price index not used:\n" + plan);
+			assertFalse(SORT.matcher(plan).find(), "search page is sorted instead of read in order:\n" + plan);
+		}
+	}
+
+	// A few years of history per room, a handful of upcoming stays and a couple of open payment holds
+	private void seed() {
+		jdbcTemplate.update("""
+				INSERT INTO rooms (room_number, price_per_night, booking_status, room_type, description,
+				                   image_url, under_maintenance, created_at, updated_at)
+				SELECT 'R' || g, 40000 + g * 500, 'AVAILABLE',
+				       (ARRAY['SINGLE', 'DOUBLE', 'SUITE', 'DELUXE'])[1 + g % 4],
+				       'Seeded room', 'https://cdn.example.com/' || g || '.jpg', g % 10 = 0, now(), now()
+				FROM generate_series(1, ?) g
+				""", ROOMS);
+		jdbcTemplate.update("""
+				INSERT INTO clients (name, phone_number, email, created_at, updated_at)
+				SELECT 'Guest ' || g, '+2348' || lpad(g::text, 9, '0'), 'guest' || g || '@example.com', now(), now()
+				FROM generate_series(1, ?) g
+				""", CLIENTS);
+		jdbcTemplate.update("""
+				INSERT INTO bookings (client_id, room_id, booking_start_date, booking_end_date, amount_paid,
+				                      payment_reference, payment_status, created_at, updated_at)
+				SELECT c.first_id + (r.id * ? + g) % ?, r.id,
+				       current_date - 1790 + g * 3, current_date - 1788 + g * 3,
+				       100000, 'SEED-' || r.id || '-' || g, 'COMPLETED', now(), now()
+				FROM rooms r
+				CROSS JOIN generate_series(0, ? - 1) g
+				CROSS JOIN (SELECT min(id) AS first_id FROM clients) c
+				""", BOOKINGS_PER_ROOM, CLIENTS, BOOKINGS_PER_ROOM);
+		jdbcTemplate.update("""
+				INSERT INTO bookings (client_id, room_id, booking_start_date, booking_end_date, amount_paid,
+				                      payment_reference, payment_status, created_at, updated_at)
+				SELECT (SELECT min(id) FROM clients), r.id, current_date + 400, current_date + 402,
+				       100000, 'HOLD-' || r.id, 'PENDING', now() - interval '1 hour', now()
+				FROM rooms r
+				ORDER BY r.id
+				LIMIT 2
+				""");
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	private String explain(QueryInfo query) throws SQLException {
+		return explain(query, null);
+	}
+
+	private String explain(QueryInfo query, String setting) throws SQLException {
+		List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+				? List.of()
+				: query.getParametersList().get(0);
+		try (Connection connection = rawDataSource.getConnection();
+			 Statement session = connection.createStatement()) {
+			if (setting == null) {
+				return explain(connection, query.getQuery(), parameters);
+			}
+			session.execute(setting);
+			try {
+				return explain(connection, query.getQuery(), parameters);
+			} finally {
+				// the connection goes back to the application's pool
+				session.execute("RESET ALL");
+			}
+		}
+	}
+
+	private String explain(Connection connection, String sql, List<ParameterSetOperation> parameters)
+			throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+			for (ParameterSetOperation parameter : parameters) {
+				Object[] args = parameter.getArgs();
+				int index = (Integer) args[0];
+				if ("setNull".equals(parameter.getMethod().getName())) {
+					statement.setNull(index, (Integer) args[1]);
+				} else {
+					statement.setObject(index, args[1]);
+				}
+			}
+			StringBuilder plan = new StringBuilder();
+			try (ResultSet rows = statement.executeQuery()) {
+				while (rows.next()) {
+					plan.append(rows.getString(1)).append('\n');
+				}
+			}
+			return plan.toString();
+		}
+	}
+
+	@TestConfiguration
+	static class QueryCapture {
+
+		@Bean
+		static BeanPostProcessor captureQueries() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+						rawDataSource = dataSource;
+						return ProxyDataSourceBuilder.create(dataSource)
+								.listener(new QueryExecutionListener() {
+									@Override
+									public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+									}
+
+									@Override
+									public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+										if (recording) {
+											captured.addAll(queryInfoList);
+										}
+									}
+								})
+								.build();
+					}
+					return bean;
+				}
+			};
+		}
+	}
+}
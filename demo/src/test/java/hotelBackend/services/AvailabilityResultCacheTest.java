@@ -0,0 +1,99 @@
+package hotelBackend.services;
+
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.events.RoomChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Which cached searches a booking or room change throws away, and loads that raced an eviction
+class AvailabilityResultCacheTest {
+
+	private final LocalDate day = LocalDate.now().plusDays(10);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger loads = new AtomicInteger();
+	private AvailabilityResultCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new AvailabilityResultCache(meterRegistry, 100, 60);
+		ReflectionTestUtils.setField(cache, "enabled", true);
+	}
+
+	@Test
+	void repeatedSearchesAreServedFromTheCache() {
+		assertEquals("q", search(day, day.plusDays(2), "q"));
+		assertEquals("q", search(day, day.plusDays(2), "q"));
+		assertEquals(1, loads.get());
+
+		search(day, day.plusDays(2), "other");
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void aBookingEvictsOnlyOverlappingSearches() {
+		search(day, day.plusDays(3), "overlapping");
+		search(day.plusDays(3), day.plusDays(5), "after");
+		search(day.minusDays(2), day, "before");
+
+		cache.onBookingChanged(booking(day.plusDays(1), day.plusDays(3)));
+
+		loads.set(0);
+		search(day, day.plusDays(3), "overlapping");
+		assertEquals(1, loads.get());
+		// back-to-back on either side shares no night with the booking
+		search(day.plusDays(3), day.plusDays(5), "after");
+		search(day.minusDays(2), day, "before");
+		assertEquals(1, loads.get());
+		assertEquals(1.0, meterRegistry.counter("rooms.availability.invalidated").count());
+	}
+
+	@Test
+	void aRoomChangeClearsEverything() {
+		search(day, day.plusDays(1), "a");
+		search(day.plusDays(100), day.plusDays(101), "b");
+
+		cache.onRoomChanged(RoomChangedEvent.updated(7L, true));
+
+		loads.set(0);
+		search(day, day.plusDays(1), "a");
+		search(day.plusDays(100), day.plusDays(101), "b");
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void aLoadThatRacedAnOverlappingBookingIsNotStored() {
+		cache.get(day, day.plusDays(2), "q", () -> {
+			loads.incrementAndGet();
+			cache.onBookingChanged(booking(day.plusDays(1), day.plusDays(4)));
+			return "stale";
+		});
+		cache.get(day.plusDays(10), day.plusDays(12), "q", () -> {
+			loads.incrementAndGet();
+			cache.onBookingChanged(booking(day, day.plusDays(1)));
+			return "fresh";
+		});
+
+		loads.set(0);
+		search(day, day.plusDays(2), "q");
+		assertEquals(1, loads.get());
+		assertEquals("fresh", cache.get(day.plusDays(10), day.plusDays(12), "q", () -> "reloaded"));
+	}
+
+	private String search(LocalDate start, LocalDate end, String query) {
+		return cache.get(start, end, query, () -> {
+			loads.incrementAndGet();
+			return query;
+		});
+	}
+
+	private static BookingChangedEvent booking(LocalDate start, LocalDate end) {
+		return new BookingChangedEvent(BookingChangedEvent.Type.CREATED, 1L, 1L, start, end, false);
+	}
+}
@@ -0,0 +1,73 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hotelBackend.dtos.BookingExportRow;
+import hotelBackend.repositories.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// CSV cells a spreadsheet could evaluate must come out as plain text
+class BookingExportServiceTest {
+
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final BookingExportService service =
+			new BookingExportService(bookingRepository, new ObjectMapper(), transactionManager);
+
+	@Test
+	void formulaLookingTextIsNeutralised() throws Exception {
+		String line = exportCsvLine(row("=HYPERLINK(\"http://evil\",\"x\")", "@SUM(A1)", "+2348012345678", "-1+1"));
+
+		assertEquals("1,2,101,3,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",'@SUM(A1),'+2348012345678,"
+				+ "2026-05-01,2026-05-03,-150.00,'-1+1,COMPLETED,2026-04-01T10:00,2026-04-01T10:00", line);
+	}
+
+	@Test
+	void tabAndCarriageReturnPrefixesAreNeutralisedToo() throws Exception {
+		String line = exportCsvLine(row("\t=1+1", "ada@example.com", "08012345678", "\r=1+1"));
+
+		assertEquals("1,2,101,3,'\t=1+1,ada@example.com,08012345678,"
+				+ "2026-05-01,2026-05-03,-150.00,\"'\r=1+1\",COMPLETED,2026-04-01T10:00,2026-04-01T10:00", line);
+	}
+
+	@Test
+	void ordinaryValuesAndNumbersAreLeftAlone() throws Exception {
+		// a negative amount is a number, not a formula
+		String line = exportCsvLine(row("Ada Lovelace", "ada@example.com", "08012345678", "Ada, Countess"));
+
+		assertEquals("1,2,101,3,Ada Lovelace,ada@example.com,08012345678,2026-05-01,2026-05-03,-150.00,"
+				+ "\"Ada, Countess\",COMPLETED,2026-04-01T10:00,2026-04-01T10:00", line);
+	}
+
+	// The single data line after the header
+	private String exportCsvLine(BookingExportRow row) throws Exception {
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(bookingRepository.streamForExport()).thenReturn(Stream.of(row));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.export(BookingExportService.Format.CSV, out);
+		String csv = out.toString(StandardCharsets.UTF_8);
+		assertTrue(csv.endsWith("\n"), csv);
+		return csv.substring(csv.indexOf('\n') + 1, csv.length() - 1);
+	}
+
+	// The four strings land in client_name, client_email, client_phone_number and payment_reference
+	private static BookingExportRow row(String name, String email, String phone, String reference) {
+		LocalDateTime created = LocalDateTime.of(2026, 4, 1, 10, 0);
+		return new BookingExportRow(1L, 2L, "101", 3L, name, email, phone,
+				LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 3), new BigDecimal("-150.00"),
+				reference, "COMPLETED", created, created);
+	}
+}
@@ -0,0 +1,84 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hotelBackend.dtos.RoomPriceChange;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The hand-rolled CSV splitter and how upload bodies turn into rows (or row errors)
+class BulkRowReaderTest {
+
+	private final BulkRowReader<RoomPriceChange> reader = new BulkRowReader<>(new ObjectMapper(), RoomPriceChange.class);
+
+	@Test
+	void quotedFieldsKeepTheirCommasAndEscapedQuotes() {
+		assertEquals(List.of("101", "Sea view, top floor", "say \"hi\"", ""),
+				BulkRowReader.splitCsvLine("101,\"Sea view, top floor\",\"say \"\"hi\"\"\","));
+		assertEquals(List.of("", "", ""), BulkRowReader.splitCsvLine(",,"));
+		assertEquals(List.of("\""), BulkRowReader.splitCsvLine("\"\"\"\""));
+	}
+
+	@Test
+	void csvRowsAreBoundByHeaderNameAfterABom() throws IOException {
+		List<BulkRowReader.Parsed<RoomPriceChange>> rows = readCsv(
+				"﻿pricePerNight, roomNumber\n150.00, 101 \n\n\"1,000.00\",102\n");
+
+		assertEquals(2, rows.size());
+		assertEquals(1, rows.get(0).row());
+		assertEquals("101", rows.get(0).value().getRoomNumber());
+		assertEquals(new BigDecimal("150.00"), rows.get(0).value().getPricePerNight());
+		// blank lines don't count as rows
+		assertEquals(2, rows.get(1).row());
+		assertNull(rows.get(1).value());
+		assertTrue(rows.get(1).error().startsWith("Unreadable row: "), rows.get(1).error());
+	}
+
+	@Test
+	void aColumnCountMismatchRejectsOnlyThatRow() throws IOException {
+		List<BulkRowReader.Parsed<RoomPriceChange>> rows = readCsv(
+				"roomNumber,pricePerNight\n101,150.00,extra\n102\n103,90.00\n");
+
+		assertEquals("Expected 2 columns but found 3", rows.get(0).error());
+		assertEquals("Expected 2 columns but found 1", rows.get(1).error());
+		assertEquals("103", rows.get(2).value().getRoomNumber());
+	}
+
+	@Test
+	void bodiesWithoutRowsAreRejectedWhole() {
+		assertThrows(IllegalArgumentException.class, () -> readCsv(""));
+		assertThrows(IllegalArgumentException.class, () -> read("{\"roomNumber\":\"101\"}", MediaType.APPLICATION_JSON));
+		assertThrows(IllegalArgumentException.class, () -> read("[{\"roomNumber\":\"101\"}", MediaType.APPLICATION_JSON));
+		assertThrows(IllegalArgumentException.class, () -> read("[{\"roomNumber\": 101,}]", MediaType.APPLICATION_JSON));
+		assertThrows(IllegalArgumentException.class, () -> read("[]", MediaType.APPLICATION_XML));
+	}
+
+	@Test
+	void jsonRowsAreNumberedAndBadOnesCarryAnError() throws IOException {
+		List<BulkRowReader.Parsed<RoomPriceChange>> rows = read(
+				"[{\"roomNumber\":\"101\",\"pricePerNight\":99.5},{\"roomNumber\":\"102\",\"pricePerNight\":\"cheap\"}]",
+				MediaType.APPLICATION_JSON);
+
+		assertEquals(new BigDecimal("99.5"), rows.get(0).value().getPricePerNight());
+		assertEquals(2, rows.get(1).row());
+		assertNotNull(rows.get(1).error());
+	}
+
+	private List<BulkRowReader.Parsed<RoomPriceChange>> readCsv(String body) throws IOException {
+		return read(body, BulkRowReader.TEXT_CSV);
+	}
+
+	private List<BulkRowReader.Parsed<RoomPriceChange>> read(String body, MediaType contentType) throws IOException {
+		List<BulkRowReader.Parsed<RoomPriceChange>> rows = new ArrayList<>();
+		reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), contentType, rows::add);
+		return rows;
+	}
+}
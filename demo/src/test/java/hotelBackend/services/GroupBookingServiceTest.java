@@ -0,0 +1,215 @@
+package hotelBackend.services;
+
+import hotelBackend.dtos.GroupBookingRequest;
+import hotelBackend.dtos.GroupBookingResponse;
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.ClientEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.repositories.BookedStay;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.ClientRepository;
+import hotelBackend.repositories.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// Group bookings against mocked repositories: lock order, insert order, partial results and the overlap retry
+class GroupBookingServiceTest {
+
+	private static final long CLIENT = 5L;
+
+	private final LocalDate day = LocalDate.now().plusDays(10);
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final RoomRepository roomRepository = mock(RoomRepository.class);
+	private final ClientRepository clientRepository = mock(ClientRepository.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final List<TransactionStatus> transactions = new ArrayList<>();
+	private GroupBookingService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new GroupBookingService(bookingRepository, roomRepository, clientRepository,
+				eventPublisher, transactionManager);
+		ReflectionTestUtils.setField(service, "maxItems", 100);
+
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+			TransactionStatus status = new SimpleTransactionStatus();
+			transactions.add(status);
+			return status;
+		});
+		ClientEntity client = new ClientEntity();
+		client.setId(CLIENT);
+		client.setName("Ada");
+		when(clientRepository.findById(CLIENT)).thenReturn(Optional.of(client));
+		when(roomRepository.lockAllByIdInOrder(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return ids.stream().map(GroupBookingServiceTest::room).toList();
+		});
+		AtomicLong ids = new AtomicLong(100);
+		when(bookingRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+			List<BookingEntity> bookings = invocation.getArgument(0);
+			bookings.forEach(booking -> booking.setId(ids.incrementAndGet()));
+			return bookings;
+		});
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void roomsAreLockedAndInsertedInAscendingOrder() {
+		GroupBookingResponse response = service.createGroupBooking(request(GroupBookingRequest.Mode.ALL_OR_NOTHING,
+				item(3, day, day.plusDays(2)),
+				item(1, day.plusDays(4), day.plusDays(5)),
+				item(2, day, day.plusDays(1)),
+				item(1, day, day.plusDays(2))));
+
+		ArgumentCaptor<Collection<Long>> locked = ArgumentCaptor.forClass(Collection.class);
+		verify(roomRepository).lockAllByIdInOrder(locked.capture());
+		assertEquals(List.of(1L, 2L, 3L), new ArrayList<>(locked.getValue()));
+
+		ArgumentCaptor<List<BookingEntity>> inserted = ArgumentCaptor.forClass(List.class);
+		verify(bookingRepository).saveAllAndFlush(inserted.capture());
+		assertEquals(List.of("1:" + day, "1:" + day.plusDays(4), "2:" + day, "3:" + day),
+				inserted.getValue().stream()
+						.map(booking -> booking.getRoom().getId() + ":" + booking.getBookingStartDate())
+						.toList());
+
+		assertTrue(response.isComplete());
+		assertEquals(4, response.getBookedCount());
+		// results stay in request order even though the inserts were sorted
+		assertEquals(List.of(3L, 1L, 2L, 1L),
+				response.getItems().stream().map(GroupBookingResponse.ItemResult::getRoomId).toList());
+		assertEquals(new BigDecimal("200.00"), response.getItems().get(0).getBooking().getAmountPaid());
+		verify(eventPublisher, times(4)).publishEvent(any(Object.class));
+	}
+
+	@Test
+	void bestEffortBooksWhatIsFreeAndReportsTheRest() {
+		when(bookingRepository.findStaysForRooms(anyCollection(), any(), any()))
+				.thenReturn(List.of(stay(2, day.plusDays(1), day.plusDays(3))));
+
+		GroupBookingResponse response = service.createGroupBooking(request(GroupBookingRequest.Mode.BEST_EFFORT,
+				item(1, day, day.plusDays(2)),
+				item(2, day, day.plusDays(2)),
+				item(1, day.plusDays(1), day.plusDays(3)),
+				item(3, day, day.plusDays(1))));
+
+		assertFalse(response.isComplete());
+		assertEquals(2, response.getBookedCount());
+		assertEquals(2, response.getRejectedCount());
+		List<GroupBookingResponse.ItemResult> items = response.getItems();
+		assertTrue(items.get(0).isBooked());
+		assertFalse(items.get(1).isBooked());
+		assertEquals("Room is already booked from " + day.plusDays(1) + " to " + day.plusDays(3),
+				items.get(1).getReason());
+		assertFalse(items.get(2).isBooked());
+		assertEquals("Overlaps another stay for the same room in this request", items.get(2).getReason());
+		assertTrue(items.get(3).isBooked());
+		assertNull(items.get(3).getReason());
+
+		assertFalse(transactions.get(0).isRollbackOnly());
+		verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+	}
+
+	@Test
+	void allOrNothingBooksNothingWhenOneItemIsTaken() {
+		when(bookingRepository.findStaysForRooms(anyCollection(), any(), any()))
+				.thenReturn(List.of(stay(2, day, day.plusDays(1))));
+
+		GroupBookingResponse response = service.createGroupBooking(request(GroupBookingRequest.Mode.ALL_OR_NOTHING,
+				item(1, day, day.plusDays(2)),
+				item(2, day, day.plusDays(2))));
+
+		assertEquals(0, response.getBookedCount());
+		assertEquals("Not booked: other rooms in the group are unavailable", response.getItems().get(0).getReason());
+		assertTrue(transactions.get(0).isRollbackOnly());
+		verify(bookingRepository, never()).saveAllAndFlush(anyList());
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	void anOverlapRejectedByTheConstraintIsRetriedWithAFreshCheck() {
+		DataIntegrityViolationException overlap = new DataIntegrityViolationException("bookings_no_overlap",
+				new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+		when(bookingRepository.saveAllAndFlush(anyList()))
+				.thenThrow(overlap)
+				.thenAnswer(invocation -> invocation.getArgument(0));
+
+		GroupBookingResponse response = service.createGroupBooking(request(GroupBookingRequest.Mode.ALL_OR_NOTHING,
+				item(1, day, day.plusDays(2))));
+
+		assertEquals(1, response.getBookedCount());
+		assertEquals(2, transactions.size());
+		verify(roomRepository, times(2)).lockAllByIdInOrder(anyCollection());
+		verify(bookingRepository, times(2)).findStaysForRooms(anyCollection(), any(), any());
+	}
+
+	private static GroupBookingRequest request(GroupBookingRequest.Mode mode, GroupBookingRequest.Item... items) {
+		GroupBookingRequest request = new GroupBookingRequest();
+		request.setClientId(CLIENT);
+		request.setMode(mode);
+		request.setItems(List.of(items));
+		return request;
+	}
+
+	private static GroupBookingRequest.Item item(long roomId, LocalDate start, LocalDate end) {
+		GroupBookingRequest.Item item = new GroupBookingRequest.Item();
+		item.setRoomId(roomId);
+		item.setStartDate(start);
+		item.setEndDate(end);
+		return item;
+	}
+
+	private static RoomEntity room(Long id) {
+		RoomEntity room = new RoomEntity();
+		room.setId(id);
+		room.setRoomNumber("R" + id);
+		room.setPricePerNight(new BigDecimal("100.00"));
+		return room;
+	}
+
+	private static BookedStay stay(long roomId, LocalDate start, LocalDate end) {
+		return new BookedStay() {
+			@Override
+			public Long getId() {
+				return 50L;
+			}
+
+			@Override
+			public Long getRoomId() {
+				return roomId;
+			}
+
+			@Override
+			public LocalDate getStartDate() {
+				return start;
+			}
+
+			@Override
+			public LocalDate getEndDate() {
+				return end;
+			}
+		};
+	}
+}
@@ -0,0 +1,80 @@
+package hotelBackend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Keyset cursors handed out by /api/rooms/filter and /api/bookings: round trips, and anything
+// a client might send back instead is a 400, never a query with half-parsed keys
+class PageCursorTest {
+
+	@Test
+	void priceCursorRoundTrips() {
+		RoomService.PriceCursor cursor = new RoomService.PriceCursor(new BigDecimal("45000.50"), 42L);
+
+		String encoded = cursor.encode();
+		assertFalse(encoded.contains("=") || encoded.contains("+") || encoded.contains("/"), encoded);
+
+		RoomService.PriceCursor decoded = RoomService.PriceCursor.decode(encoded);
+		assertEquals(0, cursor.price().compareTo(decoded.price()));
+		assertEquals(42L, decoded.id());
+	}
+
+	@Test
+	void priceCursorKeepsLargePricesExact() {
+		RoomService.PriceCursor decoded = RoomService.PriceCursor.decode(
+				new RoomService.PriceCursor(new BigDecimal("1E+7"), 1L).encode());
+		assertEquals("10000000", decoded.price().toPlainString());
+	}
+
+	@Test
+	void tamperedPriceCursorsAreRejected() {
+		for (String cursor : new String[]{
+				"not base64!",
+				encode("45000"),
+				encode("45000:"),
+				encode(":42"),
+				encode("45000:42:7"),
+				encode("cheap:42"),
+				encode("45000:42 OR 1=1"),
+				encode("45000:99999999999999999999")}) {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+					() -> RoomService.PriceCursor.decode(cursor), cursor);
+			assertEquals("Invalid cursor", e.getMessage());
+		}
+	}
+
+	@Test
+	void createdCursorRoundTrips() {
+		LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000);
+		BookingService.CreatedCursor decoded = BookingService.CreatedCursor.decode(
+				new BookingService.CreatedCursor(createdAt, 7L).encode());
+
+		assertEquals(createdAt, decoded.createdAt());
+		assertEquals(7L, decoded.id());
+	}
+
+	@Test
+	void tamperedCreatedCursorsAreRejected() {
+		for (String cursor : new String[]{
+				"%%%",
+				encode("2026-03-14T09:26"),
+				encode("2026-03-14T09:26:53:"),
+				encode("yesterday:7"),
+				encode("2026-13-14T09:26:53:7"),
+				encode("2026-03-14T09:26:53:seven")}) {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+					() -> BookingService.CreatedCursor.decode(cursor), cursor);
+			assertEquals("Invalid cursor", e.getMessage());
+		}
+	}
+
+	private static String encode(String keys) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+	}
+}
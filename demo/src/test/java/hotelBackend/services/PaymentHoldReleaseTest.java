@@ -0,0 +1,106 @@
+package hotelBackend.services;
+
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.ClientRepository;
+import hotelBackend.repositories.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Releasing holds must never remove one that a webhook marked PAID after it was read
+class PaymentHoldReleaseTest {
+
+	private static final List<String> UNPAID =
+			List.of(PaymentIntentService.STATUS_INITIATING, PaymentIntentService.STATUS_PENDING);
+
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private PaymentIntentService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new PaymentIntentService(mock(RoomRepository.class), mock(ClientRepository.class),
+				bookingRepository, mock(RoomOccupancyIndex.class), eventPublisher, mock(RoomCatalogCache.class),
+				mock(StayAvailability.class));
+		ReflectionTestUtils.setField(service, "holdMinutes", 30L);
+		when(bookingRepository.findByPaymentStatusInAndCreatedAtBefore(eq(List.of(PaymentIntentService.STATUS_PAID)), any()))
+				.thenReturn(List.of());
+	}
+
+	@Test
+	void theSweeperOnlyAnnouncesHoldsItActuallyDeleted() {
+		BookingEntity expired = hold(1L);
+		BookingEntity paidMeanwhile = hold(2L);
+		when(bookingRepository.findByPaymentStatusInAndCreatedAtBefore(eq(UNPAID), any()))
+				.thenReturn(List.of(expired, paidMeanwhile));
+		when(bookingRepository.deleteByIdAndPaymentStatusIn(1L, UNPAID)).thenReturn(1);
+		when(bookingRepository.deleteByIdAndPaymentStatusIn(2L, UNPAID)).thenReturn(0);
+
+		service.expireStaleHolds();
+
+		ArgumentCaptor<BookingChangedEvent> events = ArgumentCaptor.forClass(BookingChangedEvent.class);
+		verify(eventPublisher).publishEvent(events.capture());
+		assertEquals(1L, events.getValue().getBookingId());
+		assertEquals(BookingChangedEvent.Type.CANCELLED, events.getValue().getType());
+		verify(bookingRepository, never()).delete(any());
+	}
+
+	@Test
+	void aFailedInitiationKeepsAHoldThatWasPaidAfterAll() {
+		when(bookingRepository.findByPaymentReference("ref")).thenReturn(Optional.of(hold(3L)));
+		when(bookingRepository.deleteByIdAndPaymentStatusIn(3L, UNPAID)).thenReturn(0);
+
+		service.release("ref");
+
+		verifyNoInteractions(eventPublisher);
+		verify(bookingRepository, never()).delete(any());
+	}
+
+	@Test
+	void aReleasedHoldIsAnnounced() {
+		when(bookingRepository.findByPaymentReference("ref")).thenReturn(Optional.of(hold(4L)));
+		when(bookingRepository.deleteByIdAndPaymentStatusIn(anyLong(), anyCollection())).thenReturn(1);
+
+		service.release("ref");
+
+		verify(eventPublisher).publishEvent(any(BookingChangedEvent.class));
+	}
+
+	@Test
+	void markingInitiatedDoesNotOverwriteAPaidHold() {
+		service.markInitiated("ref");
+
+		verify(bookingRepository).updatePaymentStatus("ref",
+				List.of(PaymentIntentService.STATUS_INITIATING), PaymentIntentService.STATUS_PENDING);
+		verify(bookingRepository, never()).findByPaymentReference(any());
+	}
+
+	private static BookingEntity hold(Long id) {
+		RoomEntity room = new RoomEntity();
+		room.setId(7L);
+		BookingEntity hold = new BookingEntity();
+		hold.setId(id);
+		hold.setRoom(room);
+		hold.setBookingStartDate(LocalDate.now().plusDays(10));
+		hold.setBookingEndDate(LocalDate.now().plusDays(12));
+		// as read; the row may have moved on to PAID since
+		hold.setPaymentStatus(PaymentIntentService.STATUS_PENDING);
+		return hold;
+	}
+}
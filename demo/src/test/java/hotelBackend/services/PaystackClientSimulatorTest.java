@@ -0,0 +1,216 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import hotelBackend.exceptions.PaymentGatewayUnavailableException;
+import hotelBackend.simulator.PaystackSimulator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PaystackClient against the local simulator: happy path, faults, timeouts, bulkhead and webhooks
+class PaystackClientSimulatorTest {
+
+	private static final String SECRET = "sk_test_simulator";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private PaystackSimulator simulator;
+	private HttpServer webhookReceiver;
+
+	@AfterEach
+	void tearDown() {
+		if (simulator != null) {
+			simulator.stop();
+		}
+		if (webhookReceiver != null) {
+			webhookReceiver.stop(0);
+		}
+	}
+
+	@Test
+	void initializesAndVerifiesTransactions() throws IOException {
+		startSimulator(fastGateway().build());
+		PaystackClient client = newClient(PaystackClient.Settings.builder());
+
+		JsonNode initialized = client.initializeTransaction(paymentRequest("HOTEL-1-1-1"));
+		assertTrue(initialized.get("status").asBoolean());
+		assertEquals("HOTEL-1-1-1", initialized.get("data").get("reference").asText());
+		assertTrue(initialized.get("data").get("authorization_url").asText().startsWith(simulator.getBaseUrl()));
+
+		JsonNode verified = client.verifyTransaction("HOTEL-1-1-1");
+		assertEquals("success", verified.get("data").get("status").asText());
+		assertEquals("7", verified.get("data").get("metadata").get("roomId").asText());
+	}
+
+	@Test
+	void serverErrorsOpenTheCircuit() throws IOException {
+		startSimulator(fastGateway().errorRate(1.0).build());
+		PaystackClient client = newClient(PaystackClient.Settings.builder()
+				.failureThreshold(3)
+				.openDuration(Duration.ofMinutes(1)));
+
+		for (int i = 0; i < 3; i++) {
+			assertThrows(PaymentGatewayUnavailableException.class, () -> client.verifyTransaction("HOTEL-1-1-1"));
+		}
+		assertThrows(PaymentGatewayUnavailableException.class, () -> client.verifyTransaction("HOTEL-1-1-1"));
+
+		// the fourth call never left the process
+		assertEquals(3, simulator.getRequests());
+		assertEquals(1.0, meterRegistry.get("paystack.client.circuit.open").gauge().value());
+		assertEquals(1.0, meterRegistry.get("paystack.client.rejected").tag("reason", "circuit_open").counter().count());
+	}
+
+	@Test
+	void aTrialCallThatThrowsUncheckedStillSettlesTheCircuit() throws Exception {
+		startSimulator(fastGateway().errorRate(1.0).build());
+		PaystackClient client = newClient(PaystackClient.Settings.builder()
+				.failureThreshold(1)
+				.openDuration(Duration.ofMillis(100)));
+		assertThrows(PaymentGatewayUnavailableException.class, () -> client.verifyTransaction("HOTEL-1-1-1"));
+
+		OkHttpClient httpClient = (OkHttpClient) ReflectionTestUtils.getField(client, "httpClient");
+		ReflectionTestUtils.setField(client, "httpClient", httpClient.newBuilder()
+				.addInterceptor(chain -> {
+					throw new IllegalStateException("interceptor bug");
+				})
+				.build());
+		Thread.sleep(150);
+		PaymentGatewayUnavailableException failed = assertThrows(PaymentGatewayUnavailableException.class,
+				() -> client.verifyTransaction("HOTEL-1-1-1"));
+		assertInstanceOf(IllegalStateException.class, failed.getCause());
+		assertEquals(1.0, meterRegistry.get("paystack.client.circuit.open").gauge().value());
+
+		// the failed trial re-opened the circuit, so the next window gets a trial of its own
+		ReflectionTestUtils.setField(client, "httpClient", httpClient);
+		Thread.sleep(150);
+		assertThrows(PaymentGatewayUnavailableException.class, () -> client.verifyTransaction("HOTEL-1-1-1"));
+		assertEquals(2, simulator.getRequests());
+		assertEquals(1, meterRegistry.get("paystack.client.requests").tag("outcome", "error").timer().count());
+	}
+
+	@Test
+	void slowGatewayIsCutOffByTheCallTimeout() throws IOException {
+		startSimulator(fastGateway().timeoutRate(1.0).timeoutDelay(Duration.ofSeconds(3)).build());
+		PaystackClient client = newClient(PaystackClient.Settings.builder()
+				.readTimeout(Duration.ofMillis(200))
+				.callTimeout(Duration.ofMillis(300)));
+
+		long started = System.nanoTime();
+		assertThrows(PaymentGatewayUnavailableException.class, () -> client.verifyTransaction("HOTEL-1-1-1"));
+		assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 2000);
+		assertEquals(1, meterRegistry.get("paystack.client.requests").tag("outcome", "timeout").timer().count());
+	}
+
+	@Test
+	void bulkheadShedsCallsBeyondTheLimit() throws Exception {
+		startSimulator(PaystackSimulator.Settings.builder()
+				.secretKey(SECRET)
+				.latencyMedian(Duration.ofMillis(300))
+				.latencyP99(Duration.ofMillis(300))
+				.build());
+		PaystackClient client = newClient(PaystackClient.Settings.builder()
+				.maxConcurrentCalls(2)
+				.bulkheadWait(Duration.ZERO));
+		client.initializeTransaction(paymentRequest("HOTEL-1-1-1"));
+
+		ExecutorService callers = Executors.newFixedThreadPool(6);
+		try {
+			List<Future<JsonNode>> calls = new ArrayList<>();
+			for (int i = 0; i < 6; i++) {
+				calls.add(callers.submit(() -> client.verifyTransaction("HOTEL-1-1-1")));
+			}
+			int rejected = 0;
+			for (Future<JsonNode> call : calls) {
+				try {
+					call.get(5, TimeUnit.SECONDS);
+				} catch (java.util.concurrent.ExecutionException e) {
+					assertInstanceOf(PaymentGatewayUnavailableException.class, e.getCause());
+					rejected++;
+				}
+			}
+			assertTrue(rejected >= 1, "expected some calls to be shed");
+			assertEquals(rejected, (int) meterRegistry.get("paystack.client.rejected")
+					.tag("reason", "bulkhead_full").counter().count());
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	@Test
+	void webhooksAreSignedLikePaystack() throws Exception {
+		CountDownLatch delivered = new CountDownLatch(1);
+		AtomicReference<String> payload = new AtomicReference<>();
+		AtomicReference<String> signature = new AtomicReference<>();
+		webhookReceiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		webhookReceiver.createContext("/api/payments/webhook", exchange -> {
+			payload.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+			signature.set(exchange.getRequestHeaders().getFirst("x-paystack-signature"));
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+			delivered.countDown();
+		});
+		webhookReceiver.start();
+
+		startSimulator(fastGateway()
+				.webhookUrl("http://localhost:" + webhookReceiver.getAddress().getPort() + "/api/payments/webhook")
+				.webhookDelay(Duration.ofMillis(50))
+				.build());
+		newClient(PaystackClient.Settings.builder()).initializeTransaction(paymentRequest("HOTEL-2-3-4"));
+
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		JsonNode event = objectMapper.readTree(payload.get());
+		assertEquals("charge.success", event.get("event").asText());
+		assertEquals("HOTEL-2-3-4", event.get("data").get("reference").asText());
+
+		PaystackService paystackService = new PaystackService(null, null);
+		ReflectionTestUtils.setField(paystackService, "paystackSecretKey", SECRET);
+		assertTrue(paystackService.isValidWebhookSignature(payload.get(), signature.get()));
+		assertFalse(paystackService.isValidWebhookSignature(payload.get() + " ", signature.get()));
+	}
+
+	private PaystackSimulator.Settings.SettingsBuilder fastGateway() {
+		return PaystackSimulator.Settings.builder()
+				.secretKey(SECRET)
+				.latencyMedian(Duration.ofMillis(5))
+				.latencyP99(Duration.ofMillis(20));
+	}
+
+	private void startSimulator(PaystackSimulator.Settings settings) throws IOException {
+		simulator = new PaystackSimulator(settings, objectMapper);
+		simulator.start();
+	}
+
+	private PaystackClient newClient(PaystackClient.Settings.SettingsBuilder settings) {
+		return new PaystackClient(settings.baseUrl(simulator.getBaseUrl()).secretKey(SECRET).build(),
+				objectMapper, meterRegistry);
+	}
+
+	private Map<String, Object> paymentRequest(String reference) {
+		return Map.of(
+				"email", "guest@example.com",
+				"amount", 2500000,
+				"currency", "NGN",
+				"reference", reference,
+				"metadata", Map.of("roomId", "7", "clientId", "3"));
+	}
+}
@@ -0,0 +1,234 @@
+package hotelBackend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hotelBackend.dtos.BulkRoomResult;
+import hotelBackend.dtos.RoomImportRow;
+import hotelBackend.events.RoomChangedEvent;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Per-row results of bulk imports and price updates, against a fake rooms table behind the JDBC mocks
+class RoomBulkServiceTest {
+
+	private static final String HEADER = "roomNumber,roomType,imageUrl,pricePerNight,underMaintenance\n";
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final NamedParameterJdbcTemplate namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	// room number -> id
+	private final Map<String, Long> rooms = new LinkedHashMap<>();
+	private final AtomicInteger nextId = new AtomicInteger(100);
+	private RoomBulkService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		service = new RoomBulkService(jdbcTemplate, namedJdbcTemplate, transactionManager, eventPublisher,
+				new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+		ReflectionTestUtils.setField(service, "chunkSize", 500);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+		when(namedJdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(String.class)))
+				.thenAnswer(invocation -> numbers(invocation.getArgument(1)).stream().filter(rooms::containsKey).toList());
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(2);
+			for (String number : numbers(invocation.getArgument(1))) {
+				if (rooms.containsKey(number)) {
+					handler.processRow(row(rooms.get(number), number));
+				}
+			}
+			return null;
+		}).when(namedJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+		when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					Collection<RoomImportRow> inserted = invocation.getArgument(1);
+					inserted.forEach(row -> rooms.put(row.getRoomNumber(), (long) nextId.incrementAndGet()));
+					return new int[0][];
+				});
+	}
+
+	@Test
+	void everyImportRowGetsAResultInInputOrder() throws IOException {
+		rooms.put("201", 1L);
+
+		BulkRoomResult result = importCsv(HEADER
+				+ "101,SINGLE,a.jpg,100.00,false\n"
+				+ "102,SINGLE,b.jpg,,false\n"
+				+ " 101 ,DOUBLE,c.jpg,120.00,false\n"
+				+ "201,SUITE,d.jpg,300.00,true\n"
+				+ "103,SINGLE\n"
+				+ "104,PENTHOUSE,e.jpg,900.00,false\n"
+				+ "105,SUITE,f.jpg,250.00,true\n");
+
+		List<BulkRoomResult.Row> rows = result.getRows();
+		assertEquals(7, rows.size());
+		assertRow(rows.get(0), 1, "101", BulkRoomResult.Status.CREATED, null);
+		assertEquals(101L, rows.get(0).getRoomId());
+		assertRow(rows.get(1), 2, "102", BulkRoomResult.Status.REJECTED, "pricePerNight: Price per night is required");
+		assertRow(rows.get(2), 3, "101", BulkRoomResult.Status.REJECTED, "Duplicate room number in this upload");
+		assertRow(rows.get(3), 4, "201", BulkRoomResult.Status.REJECTED, "Room number already exists");
+		assertRow(rows.get(4), 5, null, BulkRoomResult.Status.REJECTED, "Expected 5 columns but found 2");
+		assertEquals(BulkRoomResult.Status.REJECTED, rows.get(5).getStatus());
+		assertTrue(rows.get(5).getError().startsWith("Unreadable row: "));
+		assertRow(rows.get(6), 7, "105", BulkRoomResult.Status.CREATED, null);
+
+		assertEquals(2, result.getSucceeded());
+		assertEquals(5, result.getRejected());
+		verify(eventPublisher, times(2)).publishEvent(any(RoomChangedEvent.class));
+	}
+
+	@Test
+	void duplicatesAcrossChunksAreStillCaught() throws IOException {
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+		BulkRoomResult result = importCsv(HEADER
+				+ "101,SINGLE,a.jpg,100.00,false\n"
+				+ "102,SINGLE,b.jpg,100.00,false\n"
+				+ "101,SINGLE,c.jpg,100.00,false\n");
+
+		assertEquals("Duplicate room number in this upload", result.getRows().get(2).getError());
+		assertEquals(2, result.getSucceeded());
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(),
+				any(ParameterizedPreparedStatementSetter.class));
+	}
+
+	@Test
+	void aRoomNumberTakenConcurrentlyIsFoundByTheRetry() throws IOException {
+		when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					// another admin commits room 102 between our check and our insert
+					rooms.put("102", 7L);
+					throw new DuplicateKeyException("rooms_room_number_key");
+				})
+				.thenAnswer(invocation -> {
+					Collection<RoomImportRow> inserted = invocation.getArgument(1);
+					inserted.forEach(row -> rooms.put(row.getRoomNumber(), (long) nextId.incrementAndGet()));
+					return new int[0][];
+				});
+
+		BulkRoomResult result = importCsv(HEADER
+				+ "101,SINGLE,a.jpg,100.00,false\n"
+				+ "102,SINGLE,b.jpg,100.00,false\n");
+
+		assertEquals(BulkRoomResult.Status.CREATED, result.getRows().get(0).getStatus());
+		assertEquals("Room number already exists", result.getRows().get(1).getError());
+	}
+
+	@Test
+	void aChunkThatLosesTheRaceTwiceIsRejectedWithoutLosingEarlierChunks() throws IOException {
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+		when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					Collection<RoomImportRow> inserted = invocation.getArgument(1);
+					inserted.forEach(row -> rooms.put(row.getRoomNumber(), (long) nextId.incrementAndGet()));
+					return new int[0][];
+				})
+				.thenThrow(new DuplicateKeyException("rooms_room_number_key"));
+
+		BulkRoomResult result = importCsv(HEADER
+				+ "101,SINGLE,a.jpg,100.00,false\n"
+				+ "102,SINGLE,b.jpg,100.00,false\n"
+				+ "103,SINGLE,c.jpg,100.00,false\n"
+				+ "104,SINGLE,d.jpg,,false\n");
+
+		assertEquals(2, result.getSucceeded());
+		assertRow(result.getRows().get(2), 3, "103", BulkRoomResult.Status.REJECTED,
+				"Room number taken concurrently, retry this row");
+		// rows already rejected for their own reasons keep that reason
+		assertEquals("pricePerNight: Price per night is required", result.getRows().get(3).getError());
+	}
+
+	@Test
+	void priceUpdatesReportUpdatedMissingAndDuplicateRooms() throws IOException {
+		rooms.put("101", 1L);
+		rooms.put("102", 2L);
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			// Mockito spreads the varargs, so the room number / price pairs start at argument 2
+			Object[] args = invocation.getArguments();
+			for (int i = 2; i < args.length; i += 2) {
+				String number = (String) args[i];
+				if (rooms.containsKey(number)) {
+					handler.processRow(row(rooms.get(number), number));
+				}
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+		BulkRoomResult result = service.updatePrices(body("[" +
+				"{\"roomNumber\":\"101\",\"pricePerNight\":120.00}," +
+				"{\"roomNumber\":\"999\",\"pricePerNight\":80.00}," +
+				"{\"roomNumber\":\"101\",\"pricePerNight\":130.00}," +
+				"{\"roomNumber\":\"102\",\"pricePerNight\":0}," +
+				"{\"roomNumber\":\"102\",\"pricePerNight\":95.50}]"), MediaType.APPLICATION_JSON);
+
+		List<BulkRoomResult.Row> rows = result.getRows();
+		assertRow(rows.get(0), 1, "101", BulkRoomResult.Status.UPDATED, null);
+		assertEquals(1L, rows.get(0).getRoomId());
+		assertRow(rows.get(1), 2, "999", BulkRoomResult.Status.REJECTED, "Room not found");
+		assertRow(rows.get(2), 3, "101", BulkRoomResult.Status.REJECTED, "Duplicate room number in this upload");
+		assertRow(rows.get(3), 4, "102", BulkRoomResult.Status.REJECTED, "pricePerNight: Price per night must be positive");
+		// the rejected row above didn't claim the room number
+		assertRow(rows.get(4), 5, "102", BulkRoomResult.Status.UPDATED, null);
+		verify(eventPublisher, times(2)).publishEvent(any(RoomChangedEvent.class));
+	}
+
+	private BulkRoomResult importCsv(String csv) throws IOException {
+		return service.importRooms(body(csv), BulkRowReader.TEXT_CSV);
+	}
+
+	private static ByteArrayInputStream body(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void assertRow(BulkRoomResult.Row row, int index, String roomNumber,
+								  BulkRoomResult.Status status, String error) {
+		assertEquals(index, row.getRow());
+		assertEquals(roomNumber, row.getRoomNumber());
+		assertEquals(status, row.getStatus());
+		assertEquals(error, row.getError());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String> numbers(SqlParameterSource params) {
+		return (List<String>) params.getValue("numbers");
+	}
+
+	private static ResultSet row(long id, String number) throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getLong("id")).thenReturn(id);
+		when(rs.getString("room_number")).thenReturn(number);
+		when(rs.getBoolean("under_maintenance")).thenReturn(false);
+		return rs;
+	}
+}
@@ -0,0 +1,68 @@
+package hotelBackend.services;
+
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.events.RoomChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Notifications from other nodes become remote events here; remote events are never relayed back
+class RoomCatalogInvalidatorTest {
+
+	private final RoomCatalogCache cache = mock(RoomCatalogCache.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final RoomCatalogInvalidator invalidator = new RoomCatalogInvalidator(cache,
+			mock(RoomOccupancyIndex.class), mock(AvailabilityResultCache.class), eventPublisher, jdbcTemplate);
+
+	@Test
+	void aRoomChangeFromAnotherNodeIsRepublishedAsARemoteEvent() {
+		invalidator.handle("other-node:room:UPDATED:7:true");
+
+		ArgumentCaptor<RoomChangedEvent> event = ArgumentCaptor.forClass(RoomChangedEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertEquals(RoomChangedEvent.Type.UPDATED, event.getValue().getType());
+		assertEquals(7L, event.getValue().getRoomId());
+		assertTrue(event.getValue().isUnderMaintenance());
+		assertTrue(event.getValue().isRemote());
+	}
+
+	@Test
+	void aRemoteRoomEventEvictsLocallyWithoutNotifyingAgain() {
+		invalidator.onRoomChanged(RoomChangedEvent.fromOtherNode(RoomChangedEvent.Type.DELETED, 7L, false));
+
+		verify(cache).evict(7L);
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void bookingChangesAndOldStyleRoomIdsAreStillUnderstood() {
+		invalidator.handle("other-node:9");
+		verify(cache).evict(9L);
+
+		LocalDate start = LocalDate.of(2026, 5, 1);
+		invalidator.handle("other-node:booking:CREATED:3:7:" + start + ":" + start.plusDays(2));
+		ArgumentCaptor<BookingChangedEvent> event = ArgumentCaptor.forClass(BookingChangedEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertTrue(event.getValue().isRemote());
+		assertEquals(start.plusDays(2), event.getValue().getEndDate());
+	}
+
+	@Test
+	void malformedNotificationsAreIgnored() {
+		invalidator.handle("other-node:room:UPDATED:7:maybe");
+		invalidator.handle("other-node:room:RENAMED:7:true");
+		invalidator.handle("other-node:booking:CREATED:3");
+		invalidator.handle("nonsense");
+
+		verify(eventPublisher, never()).publishEvent(any());
+		verifyNoInteractions(cache);
+	}
+}
@@ -0,0 +1,158 @@
+package hotelBackend.services;
+
+import hotelBackend.events.BookingChangedEvent;
+import hotelBackend.repositories.BookedStay;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.RoomRepository;
+import hotelBackend.repositories.RoomState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The in-memory occupancy index: interval lookups, event updates and the journal replayed after a reload
+class RoomOccupancyIndexTest {
+
+	private static final long ROOM = 1L;
+
+	private final LocalDate day = LocalDate.now().plusDays(10);
+	private final RoomRepository roomRepository = mock(RoomRepository.class);
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private RoomOccupancyIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new RoomOccupancyIndex(roomRepository, bookingRepository);
+		ReflectionTestUtils.setField(index, "enabled", true);
+		when(roomRepository.findAllRoomStates()).thenReturn(List.of(room(ROOM)));
+	}
+
+	@Test
+	void backToBackStaysDoNotConflict() {
+		load(stay(10, day, day.plusDays(2)), stay(11, day.plusDays(2), day.plusDays(4)));
+
+		assertTrue(index.check(ROOM, day.plusDays(4), day.plusDays(6)).isAvailable());
+		assertTrue(index.check(ROOM, day.minusDays(2), day).isAvailable());
+
+		RoomOccupancyIndex.OccupiedStay conflict = index.check(ROOM, day.plusDays(1), day.plusDays(3)).getConflict();
+		assertEquals(10L, conflict.getBookingId());
+		assertEquals(11L, index.check(ROOM, day.plusDays(3), day.plusDays(5)).getConflict().getBookingId());
+	}
+
+	@Test
+	void overlappingInsertAndRemovalFollowTheEvents() {
+		load(stay(10, day, day.plusDays(2)));
+
+		index.onBookingChanged(created(20, day.plusDays(5), day.plusDays(9)));
+		assertEquals(20L, index.check(ROOM, day.plusDays(8), day.plusDays(12)).getConflict().getBookingId());
+
+		// a long stay starting earlier must still be found through the longest-stay lookback
+		index.onBookingChanged(created(21, day.minusDays(1), day.plusDays(30)));
+		assertEquals(21L, index.check(ROOM, day.plusDays(20), day.plusDays(21)).getConflict().getBookingId());
+
+		index.onBookingChanged(cancelled(21, day.minusDays(1), day.plusDays(30)));
+		assertTrue(index.check(ROOM, day.plusDays(20), day.plusDays(21)).isAvailable());
+		index.onBookingChanged(cancelled(20, day.plusDays(5), day.plusDays(9)));
+		assertTrue(index.check(ROOM, day.plusDays(5), day.plusDays(9)).isAvailable());
+		assertFalse(index.check(ROOM, day, day.plusDays(1)).isAvailable());
+	}
+
+	@Test
+	void withStaysSortsByStartDate() {
+		RoomOccupancyIndex.RoomOccupancy occupancy = RoomOccupancyIndex.RoomOccupancy.empty(false).withStays(List.of(
+				stay(3, day.plusDays(8), day.plusDays(9)),
+				stay(1, day, day.plusDays(1)),
+				stay(2, day.plusDays(4), day.plusDays(5))));
+
+		assertArrayEquals(new long[]{1, 2, 3}, occupancy.bookingIds);
+		assertArrayEquals(new long[]{day.toEpochDay(), day.plusDays(4).toEpochDay(), day.plusDays(8).toEpochDay()},
+				occupancy.starts);
+		assertEquals(List.of(1L, 2L, 3L), occupancy.overlapping(day.toEpochDay(), day.plusDays(10).toEpochDay())
+				.stream().map(RoomOccupancyIndex.OccupiedStay::getBookingId).toList());
+	}
+
+	@Test
+	void eventsDuringAReloadAreReplayedOntoTheFreshIndex() {
+		load(stay(10, day, day.plusDays(2)));
+
+		// Commits land while the reload is reading bookings: one new stay the read missed,
+		// and a cancellation of a stay the read still returned
+		when(bookingRepository.findStaysEndingAfter(any())).thenAnswer(invocation -> {
+			index.onBookingChanged(created(30, day.plusDays(6), day.plusDays(7)));
+			index.onBookingChanged(cancelled(10, day, day.plusDays(2)));
+			return List.of(stay(10, day, day.plusDays(2)));
+		});
+		index.reload();
+
+		assertEquals(30L, index.check(ROOM, day.plusDays(6), day.plusDays(7)).getConflict().getBookingId());
+		assertTrue(index.check(ROOM, day, day.plusDays(2)).isAvailable());
+	}
+
+	@Test
+	void unknownRoomsMakeTheIndexDeferToTheDatabase() {
+		load(stay(10, day, day.plusDays(2)));
+
+		assertNull(index.check(99L, day, day.plusDays(1)));
+		assertTrue(index.findAvailableRoomIds(List.of(ROOM, 99L), day, day.plusDays(1)).isEmpty());
+		assertEquals(List.of(ROOM), index.findAvailableRoomIds(List.of(ROOM), day.plusDays(2), day.plusDays(3)).get());
+	}
+
+	private void load(BookedStay... stays) {
+		when(bookingRepository.findStaysEndingAfter(any())).thenReturn(List.of(stays));
+		index.reload();
+		assertTrue(index.isReady());
+	}
+
+	private static BookingChangedEvent created(long bookingId, LocalDate start, LocalDate end) {
+		return new BookingChangedEvent(BookingChangedEvent.Type.CREATED, bookingId, ROOM, start, end, false);
+	}
+
+	private static BookingChangedEvent cancelled(long bookingId, LocalDate start, LocalDate end) {
+		return new BookingChangedEvent(BookingChangedEvent.Type.CANCELLED, bookingId, ROOM, start, end, false);
+	}
+
+	private static RoomState room(long id) {
+		return new RoomState() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public boolean isUnderMaintenance() {
+				return false;
+			}
+		};
+	}
+
+	private static BookedStay stay(long id, LocalDate start, LocalDate end) {
+		return new BookedStay() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public Long getRoomId() {
+				return ROOM;
+			}
+
+			@Override
+			public LocalDate getStartDate() {
+				return start;
+			}
+
+			@Override
+			public LocalDate getEndDate() {
+				return end;
+			}
+		};
+	}
+}
@@ -0,0 +1,111 @@
+package hotelBackend.services;
+
+import hotelBackend.dtos.RoomSummary;
+import hotelBackend.entities.RoomType;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.ClientRepository;
+import hotelBackend.repositories.RoomCatalogVersion;
+import hotelBackend.repositories.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// The cached catalog must agree with the database version the HTTP validators are built from
+class RoomServiceCatalogTest {
+
+	private final LocalDateTime before = LocalDateTime.of(2026, 5, 1, 12, 0);
+	private final LocalDateTime after = before.plusMinutes(5);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RoomRepository roomRepository = mock(RoomRepository.class);
+	private RoomService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new RoomService(roomRepository, mock(BookingRepository.class), mock(ClientRepository.class),
+				mock(ApplicationEventPublisher.class), meterRegistry);
+		ReflectionTestUtils.setField(service, "roomCatalogCache",
+				new RoomCatalogCache(roomRepository, meterRegistry, 100, 600));
+	}
+
+	@Test
+	void aCatalogThatMatchesTheVersionIsServedFromTheCache() {
+		when(roomRepository.findAllSummaries()).thenReturn(List.of(room(1, before), room(2, before)));
+
+		service.getAllRooms(version(2, before));
+		List<RoomSummary> rooms = service.getAllRooms(version(2, before));
+
+		assertEquals(2, rooms.size());
+		verify(roomRepository, times(1)).findAllSummaries();
+	}
+
+	@Test
+	void aStaleCatalogIsReloadedBeforeItIsServed() {
+		when(roomRepository.findAllSummaries())
+				.thenReturn(List.of(room(1, before), room(2, before)))
+				.thenReturn(List.of(room(1, before), room(2, after)));
+		service.getAllRooms(version(2, before));
+
+		// another node changed room 2 and its notification never arrived
+		List<RoomSummary> rooms = service.getAllRooms(version(2, after));
+
+		assertEquals(after, RoomService.lastUpdated(rooms));
+		assertTrue(RoomService.matches(rooms, version(2, after)));
+		// and the fresh catalog is what gets cached
+		service.getAllRooms(version(2, after));
+		verify(roomRepository, times(2)).findAllSummaries();
+	}
+
+	@Test
+	void aDeletedRoomIsNoLongerServedFromTheCatalog() {
+		when(roomRepository.findAllSummaries())
+				.thenReturn(List.of(room(1, before), room(2, before)))
+				.thenReturn(List.of(room(1, before)));
+		service.getAllRooms(version(2, before));
+
+		assertEquals(List.of(1L), service.getAllRooms(version(1, before)).stream().map(RoomSummary::id).toList());
+	}
+
+	@Test
+	void aStaleRoomIsReloadedAndAMissingOneIsNotServed() {
+		when(roomRepository.findSummaryById(2L))
+				.thenReturn(Optional.of(room(2, before)))
+				.thenReturn(Optional.of(room(2, after)))
+				.thenReturn(Optional.empty());
+		assertEquals(before, service.getRoomByid(2L, before).updatedAt());
+		assertEquals(before, service.getRoomByid(2L, before).updatedAt());
+
+		assertEquals(after, service.getRoomByid(2L, after).updatedAt());
+		assertThrows(EntityNotFoundException.class, () -> service.getRoomByid(2L, null));
+		verify(roomRepository, times(3)).findSummaryById(2L);
+	}
+
+	private static RoomSummary room(long id, LocalDateTime updatedAt) {
+		return new RoomSummary(id, RoomType.SUITE, "R" + id, "", "room.jpg", false,
+				new BigDecimal("100.00"), updatedAt);
+	}
+
+	private static RoomCatalogVersion version(long count, LocalDateTime lastUpdated) {
+		return new RoomCatalogVersion() {
+			@Override
+			public long getRoomCount() {
+				return count;
+			}
+
+			@Override
+			public LocalDateTime getLastUpdated() {
+				return lastUpdated;
+			}
+		};
+	}
+}
@@ -0,0 +1,111 @@
+package hotelBackend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Identical calls collapsing onto one leader, and what followers see when it fails
+class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SingleFlight<String, String> flight = new SingleFlight<>("test", meterRegistry);
+	private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+	private final AtomicInteger calls = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentIdenticalCallsRunOnce() throws Exception {
+		List<Future<String>> results = startCallers("key", () -> {
+			calls.incrementAndGet();
+			await(release);
+			return "result";
+		});
+
+		release.countDown();
+		for (Future<String> result : results) {
+			assertEquals("result", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, calls.get());
+		assertEquals(1.0, meterRegistry.get("singleflight.calls").tag("result", "executed").counter().count());
+		assertEquals(CALLERS - 1.0, meterRegistry.get("singleflight.calls").tag("result", "collapsed").counter().count());
+		assertEquals(0.0, meterRegistry.get("singleflight.inflight").gauge().value());
+	}
+
+	@Test
+	void theLeadersExceptionReachesEveryWaiter() throws Exception {
+		IllegalStateException failure = new IllegalStateException("database is down");
+		List<Future<String>> results = startCallers("key", () -> {
+			calls.incrementAndGet();
+			await(release);
+			throw failure;
+		});
+
+		release.countDown();
+		for (Future<String> result : results) {
+			Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertSame(failure, e.getCause());
+		}
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void theKeyIsFreedOnceTheCallFinishes() {
+		assertEquals("1", flight.execute("key", () -> String.valueOf(calls.incrementAndGet())));
+		assertEquals("2", flight.execute("key", () -> String.valueOf(calls.incrementAndGet())));
+
+		assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+			throw new IllegalStateException();
+		}));
+		assertEquals("3", flight.execute("key", () -> String.valueOf(calls.incrementAndGet())));
+		assertEquals(0.0, meterRegistry.get("singleflight.inflight").gauge().value());
+	}
+
+	@Test
+	void differentKeysDoNotWaitOnEachOther() {
+		assertEquals("b", flight.execute("a", () -> flight.execute("b", () -> "b")));
+	}
+
+	// Starts CALLERS threads on the same key and waits until all of them are inside execute
+	private List<Future<String>> startCallers(String key, Supplier<String> call) throws InterruptedException {
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> flight.execute(key, call)));
+		}
+		DoubleSupplier collapsed = () -> meterRegistry.get("singleflight.calls").tag("result", "collapsed").counter().count();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (collapsed.getAsDouble() < CALLERS - 1 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(CALLERS - 1.0, collapsed.getAsDouble());
+		return results;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
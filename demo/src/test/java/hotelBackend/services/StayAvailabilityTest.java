@@ -0,0 +1,81 @@
+package hotelBackend.services;
+
+import hotelBackend.entities.BookingEntity;
+import hotelBackend.entities.RoomEntity;
+import hotelBackend.exceptions.BookingException;
+import hotelBackend.exceptions.PaymentProcessingException;
+import hotelBackend.repositories.BookingRepository;
+import hotelBackend.repositories.RoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// The index may say "free" on its own, but a "taken" answer is always confirmed by the database
+class StayAvailabilityTest {
+
+	private static final long ROOM = 7L;
+
+	private final LocalDate start = LocalDate.now().plusDays(10);
+	private final LocalDate end = start.plusDays(2);
+	private final RoomOccupancyIndex occupancyIndex = mock(RoomOccupancyIndex.class);
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final RoomRepository roomRepository = mock(RoomRepository.class);
+	private final StayAvailability availability = new StayAvailability(occupancyIndex, bookingRepository, roomRepository);
+
+	@Test
+	void aFreeIndexAnswerSkipsTheDatabase() {
+		when(occupancyIndex.check(ROOM, start, end)).thenReturn(new RoomOccupancyIndex.Availability(false, null));
+
+		assertTrue(availability.isFreeForWrite(ROOM, start, end));
+		verifyNoInteractions(bookingRepository);
+	}
+
+	@Test
+	void aTakenIndexAnswerIsConfirmedFirst() {
+		when(occupancyIndex.check(ROOM, start, end)).thenReturn(new RoomOccupancyIndex.Availability(false,
+				new RoomOccupancyIndex.OccupiedStay(1L, start, end)));
+
+		// the stay was cancelled on another node and this index hasn't heard yet
+		when(bookingRepository.existsOverlapping(ROOM, start, end)).thenReturn(false);
+		assertTrue(availability.isFreeForWrite(ROOM, start, end));
+
+		when(bookingRepository.existsOverlapping(ROOM, start, end)).thenReturn(true);
+		assertFalse(availability.isFreeForWrite(ROOM, start, end));
+	}
+
+	@Test
+	void anUnknownRoomGoesToTheDatabase() {
+		when(bookingRepository.existsOverlapping(ROOM, start, end)).thenReturn(true);
+
+		assertFalse(availability.isFreeForWrite(ROOM, start, end));
+	}
+
+	@Test
+	void theRefusalExplainsItselfInTheCallersExceptionType() {
+		RoomEntity room = new RoomEntity();
+		room.setId(ROOM);
+		when(roomRepository.findById(ROOM)).thenReturn(Optional.of(room));
+		BookingEntity conflict = new BookingEntity();
+		conflict.setBookingStartDate(start.minusDays(1));
+		conflict.setBookingEndDate(start.plusDays(1));
+		when(bookingRepository.findConflictingBookings(ROOM, start, end)).thenReturn(List.of(conflict));
+
+		BookingException booking = availability.refusal(ROOM, start, end, BookingException::new);
+		assertEquals("Room is already booked from " + start.minusDays(1) + " to " + start.plusDays(1),
+				booking.getMessage());
+
+		room.setUnderMaintenance(true);
+		assertEquals("Room is under maintenance",
+				availability.refusal(ROOM, start, end, PaymentProcessingException::new).getMessage());
+
+		when(roomRepository.findById(any())).thenReturn(Optional.empty());
+		assertThrows(PaymentProcessingException.class,
+				() -> availability.refusal(ROOM, start, end, PaymentProcessingException::new), "Room not found");
+	}
+}